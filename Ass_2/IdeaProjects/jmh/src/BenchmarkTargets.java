@@ -0,0 +1,135 @@
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+import benchmarks.BenchmarkDeque;
+import benchmarks.DequeBenchmark;
+import benchmarks.SortingBenchmark;
+import benchmarks.Targets;
+
+/**
+ * Gives the benchmarks package access to the code in the default package.
+ */
+public class BenchmarkTargets implements Targets {
+
+    @Override
+    public BenchmarkDeque<Integer> createDeque(DequeBenchmark.Implementation implementation,
+                                               int size) throws IllegalArgumentException {
+        switch (implementation) {
+            case SIMPLE_ARRAY:
+                return new Adapter<>(new SimpleArrayDeque<>(size + 1));
+            case SIMPLE_ARRAY_FIXED:
+                return new Adapter<>(new SimpleArrayDeque<>(Integer.highestOneBit(size) << 1,
+                        SimpleArrayDeque.OverflowPolicy.REJECT));
+            case SIMPLE_LINKED:
+                return new Adapter<>(new SimpleLinkedDeque<>(size + 1));
+            case REVERSIBLE:
+                return new Adapter<>(new ReversibleDeque<>(new SimpleLinkedDeque<>()));
+            default:
+                throw new IllegalArgumentException();
+        }
+    }
+
+    @Override
+    public Consumer<Integer[]> sorter(SortingBenchmark.Algorithm algorithm)
+            throws IllegalArgumentException {
+        switch (algorithm) {
+            case MERGE_SORT:
+                return input -> SortingAlgorithms.mergeSort(input, false);
+            case PARALLEL_MERGE_SORT:
+                return input -> SortingAlgorithms.parallelMergeSort(input, false);
+            case QUICK_SORT:
+                return input -> SortingAlgorithms.quickSort(input, false);
+            case TIM_SORT:
+                return input -> SortingAlgorithms.timSort(input, false);
+            case PARALLEL_SAMPLE_SORT:
+                return input -> SortingAlgorithms.parallelSampleSort(input, false);
+            case MERGE_SORT_DESCENDING:
+                return input -> SortingAlgorithms.mergeSort(input,
+                        Comparator.naturalOrder(), true);
+            case SORT_BY_INT_KEY:
+                return input -> SortingAlgorithms.sortByIntKey(input,
+                        Integer::intValue, false);
+            case SELECT_MEDIAN:
+                return input -> SortingAlgorithms.select(input, input.length / 2);
+            case PARTIAL_SORT_ONE_PERCENT:
+                return input -> SortingAlgorithms.partialSort(input, input.length / 100);
+            case QUATERNARY_HEAPSORT:
+                return QuaternaryHeapsort::quaternaryHeapsort;
+            default:
+                throw new IllegalArgumentException();
+        }
+    }
+
+    @Override
+    public void selectionSort(Integer[] values) {
+        SortingAlgorithms.selectionSort(values, false);
+    }
+
+    @Override
+    public void insertionSort(Integer[] values) {
+        SortingAlgorithms.insertionSort(values, false);
+    }
+
+    @Override
+    public void radixSort(int[] values) {
+        SortingAlgorithms.radixSort(values, false);
+    }
+
+    @Override
+    public void radixSort(long[] values) {
+        SortingAlgorithms.radixSort(values, false);
+    }
+
+    @Override
+    public int[] topK(int[] values, int k) {
+        return SortingAlgorithms.topK(values, k);
+    }
+
+    /**
+     * Presents a SimpleDeque as a BenchmarkDeque.
+     */
+    private static final class Adapter<T> implements BenchmarkDeque<T> {
+        private final SimpleDeque<T> deque;
+
+        Adapter(SimpleDeque<T> deque) {
+            this.deque = deque;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return deque.isEmpty();
+        }
+
+        @Override
+        public int size() {
+            return deque.size();
+        }
+
+        @Override
+        public void pushLeft(T e) throws RuntimeException {
+            deque.pushLeft(e);
+        }
+
+        @Override
+        public void pushRight(T e) throws RuntimeException {
+            deque.pushRight(e);
+        }
+
+        @Override
+        public T popLeft() throws NoSuchElementException {
+            return deque.popLeft();
+        }
+
+        @Override
+        public T popRight() throws NoSuchElementException {
+            return deque.popRight();
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return deque.iterator();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package benchmarks;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The deque operations the benchmarks run. The SimpleDeque implementations are
+ * in the default package, which code in a named package cannot refer to, so
+ * they are benchmarked through this interface, as are the JDK deques.
+ *
+ * @param <T> Element stored inside the deque.
+ */
+public interface BenchmarkDeque<T> {
+    boolean isEmpty();
+
+    int size();
+
+    void pushLeft(T e) throws RuntimeException;
+
+    void pushRight(T e) throws RuntimeException;
+
+    T popLeft() throws NoSuchElementException;
+
+    T popRight() throws NoSuchElementException;
+
+    Iterator<T> iterator();
+}
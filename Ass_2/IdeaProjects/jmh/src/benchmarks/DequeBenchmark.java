@@ -0,0 +1,267 @@
+package benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH benchmarks comparing the SimpleDeque implementations with the JDK's
+ * ArrayDeque and LinkedList, of which ArrayDeque.java and LinkedList.java in
+ * the project directory are copies.
+ *
+ * Workloads, each run at every size:
+ *  - fifo, lifo, alternating: one push and one pop per operation on a deque
+ *    kept at size elements, reported in ops/sec
+ *  - burstThenDrain: pushes size elements into an empty deque, then pops
+ *    them all, reported as time per burst
+ *  - iterate: walks a deque of size elements, reported as time per walk
+ *  - footprint: builds a deque of size elements and reports the heap it
+ *    retains, as the retainedBytes and elements counters
+ *
+ * Build the benchmarks jar with the Maven module in jmh, then run it with the
+ * gc profiler to also get the allocation rate of each workload:
+ *     mvn -f jmh/pom.xml package
+ *     java -jar jmh/target/benchmarks.jar DequeBenchmark -prof gc -rf csv
+ * The forks are given 2 GB of heap, enough for up to 10^7 elements. The 10^8
+ * size needs a few GB more, so it is only run on request:
+ *     java -jar jmh/target/benchmarks.jar DequeBenchmark -p size=100000000 \
+ *         -jvmArgsAppend "-Xms12g -Xmx12g"
+ *
+ * Every deque holds the same preallocated element, so no workload measures
+ * boxing.
+ */
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Thread)
+public class DequeBenchmark {
+    // the element pushed by every workload
+    private static final Integer ELEMENT = 42;
+    // creates the SimpleDeque implementations
+    private static final Targets TARGETS = Targets.load();
+
+    /**
+     * The implementations being compared.
+     */
+    public enum Implementation {
+        SIMPLE_ARRAY,
+        SIMPLE_ARRAY_FIXED,
+        SIMPLE_LINKED,
+        REVERSIBLE,
+        JDK_ARRAY_DEQUE {
+            @Override
+            BenchmarkDeque<Integer> create(int size) {
+                return new JdkDeque<>(new ArrayDeque<>());
+            }
+        },
+        JDK_LINKED_LIST {
+            @Override
+            BenchmarkDeque<Integer> create(int size) {
+                return new JdkDeque<>(new LinkedList<>());
+            }
+        };
+
+        /**
+         * Creates an empty deque with room for at least size + 1 elements.
+         */
+        BenchmarkDeque<Integer> create(int size) {
+            return TARGETS.createDeque(this, size);
+        }
+    }
+
+    @Param({"SIMPLE_ARRAY", "SIMPLE_ARRAY_FIXED", "SIMPLE_LINKED", "REVERSIBLE",
+            "JDK_ARRAY_DEQUE", "JDK_LINKED_LIST"})
+    public Implementation implementation;
+
+    @Param({"10", "1000", "100000", "10000000"})
+    public int size;
+
+    // deque kept at size elements by the steady-state workloads
+    private BenchmarkDeque<Integer> full;
+    // deque emptied after every burst
+    private BenchmarkDeque<Integer> empty;
+    // end pushed to next by the alternating workload
+    private boolean left;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        full = implementation.create(size);
+        for (int i = 0; i < size; ++i) {
+            full.pushRight(ELEMENT);
+        }
+        empty = implementation.create(size);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public Integer fifo() {
+        full.pushRight(ELEMENT);
+        return full.popLeft();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public Integer lifo() {
+        full.pushRight(ELEMENT);
+        return full.popRight();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public Integer alternating() {
+        // pushes to one end and pops from the other, switching ends each time
+        left = !left;
+        if (left) {
+            full.pushLeft(ELEMENT);
+            return full.popRight();
+        }
+        full.pushRight(ELEMENT);
+        return full.popLeft();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void burstThenDrain(Blackhole blackhole) {
+        for (int i = 0; i < size; ++i) {
+            empty.pushRight(ELEMENT);
+        }
+        while (!empty.isEmpty()) {
+            blackhole.consume(empty.popLeft());
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void iterate(Blackhole blackhole) {
+        Iterator<Integer> iterator = full.iterator();
+        while (iterator.hasNext()) {
+            blackhole.consume(iterator.next());
+        }
+    }
+
+    /**
+     * Heap retained by the deque built in one footprint invocation, measured
+     * as the difference in used heap after full collections. Both counters
+     * are summed the same way, so their ratio is the bytes per element.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long retainedBytes;
+        public long elements;
+        // used heap before the deque was built
+        private long baseline;
+
+        @Setup(Level.Invocation)
+        public void before() {
+            baseline = usedHeap();
+        }
+
+        void after(BenchmarkDeque<Integer> deque) {
+            retainedBytes += Math.max(0, usedHeap() - baseline);
+            elements += deque.size();
+        }
+
+        private static long usedHeap() {
+            MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+            // a few collections, so objects with finalizers and the like go
+            for (int i = 0; i < 3; ++i) {
+                System.gc();
+            }
+            return memory.getHeapMemoryUsage().getUsed();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public BenchmarkDeque<Integer> footprint(Footprint footprint) {
+        BenchmarkDeque<Integer> deque = implementation.create(size);
+        for (int i = 0; i < size; ++i) {
+            deque.pushRight(ELEMENT);
+        }
+        footprint.after(deque);
+        return deque;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        full = null;
+        empty = null;
+    }
+
+    /**
+     * Presents a java.util.Deque as a BenchmarkDeque, so every implementation
+     * runs the same benchmark code.
+     */
+    private static final class JdkDeque<T> implements BenchmarkDeque<T> {
+        private final Deque<T> deque;
+
+        JdkDeque(Deque<T> deque) {
+            this.deque = deque;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return deque.isEmpty();
+        }
+
+        @Override
+        public int size() {
+            return deque.size();
+        }
+
+        @Override
+        public void pushLeft(T e) {
+            deque.addFirst(e);
+        }
+
+        @Override
+        public void pushRight(T e) {
+            deque.addLast(e);
+        }
+
+        @Override
+        public T popLeft() throws NoSuchElementException {
+            return deque.removeFirst();
+        }
+
+        @Override
+        public T popRight() throws NoSuchElementException {
+            return deque.removeLast();
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return deque.iterator();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks of the primitive array methods of SortingAlgorithms, over the
+ * inputs of SortingBenchmark, and of the array copies every sort benchmark
+ * makes before sorting. As in SortingBenchmark, the 10^8 size is only run on
+ * request.
+ */
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class PrimitiveSortingBenchmark {
+    // calls the sorts
+    private static final Targets TARGETS = Targets.load();
+
+    @Param({"RANDOM", "SORTED", "REVERSED", "FEW_UNIQUE", "ORGAN_PIPE", "SAWTOOTH"})
+    public SortingBenchmark.Distribution distribution;
+
+    @Param({"10", "1000", "100000", "10000000"})
+    public int size;
+
+    // the inputs, never modified
+    private Integer[] boxed;
+    private int[] ints;
+    private long[] longs;
+    // the arrays sorted by each invocation
+    private Integer[] boxedWork;
+    private int[] intWork;
+    private long[] longWork;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        boxed = distribution.generateBoxed(size);
+        ints = distribution.generate(size);
+        // spreads the values over the upper digits too
+        longs = new long[size];
+        for (int i = 0; i < size; ++i) {
+            longs[i] = ints[i] * 0x9E3779B97F4A7C15L;
+        }
+        boxedWork = new Integer[size];
+        intWork = new int[size];
+        longWork = new long[size];
+    }
+
+    @Benchmark
+    public Integer[] copyBoxed() {
+        System.arraycopy(boxed, 0, boxedWork, 0, size);
+        return boxedWork;
+    }
+
+    @Benchmark
+    public int[] copyInts() {
+        System.arraycopy(ints, 0, intWork, 0, size);
+        return intWork;
+    }
+
+    @Benchmark
+    public int[] radixSortInts() {
+        System.arraycopy(ints, 0, intWork, 0, size);
+        TARGETS.radixSort(intWork);
+        return intWork;
+    }
+
+    @Benchmark
+    public long[] radixSortLongs() {
+        System.arraycopy(longs, 0, longWork, 0, size);
+        TARGETS.radixSort(longWork);
+        return longWork;
+    }
+
+    @Benchmark
+    public int[] topHundred() {
+        return TARGETS.topK(ints, Math.min(100, size));
+    }
+}
@@ -0,0 +1,62 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks of the quadratic sorts of SortingAlgorithms, over the inputs
+ * of SortingBenchmark, up to the sizes they sort in seconds.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class QuadraticSortingBenchmark {
+    // calls the sorts
+    private static final Targets TARGETS = Targets.load();
+
+    @Param({"RANDOM", "SORTED", "REVERSED", "FEW_UNIQUE", "ORGAN_PIPE", "SAWTOOTH"})
+    public SortingBenchmark.Distribution distribution;
+
+    @Param({"10", "100", "1000", "10000"})
+    public int size;
+
+    // the input, never modified
+    private Integer[] input;
+    // the array sorted by each invocation
+    private Integer[] work;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        input = distribution.generateBoxed(size);
+        work = new Integer[size];
+    }
+
+    @Benchmark
+    public Integer[] selectionSort() {
+        System.arraycopy(input, 0, work, 0, size);
+        TARGETS.selectionSort(work);
+        return work;
+    }
+
+    @Benchmark
+    public Integer[] insertionSort() {
+        System.arraycopy(input, 0, work, 0, size);
+        TARGETS.insertionSort(work);
+        return work;
+    }
+}
@@ -0,0 +1,198 @@
+package benchmarks;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmarks of the O(n log n) and linear time object sorts of
+ * SortingAlgorithms, QuaternaryHeapsort and, as a baseline, Arrays.sort, over
+ * several input distributions at sizes from 10 to 10^7, or 10^8 on request.
+ * The primitive sorts
+ * are in PrimitiveSortingBenchmark, and the quadratic sorts in
+ * QuadraticSortingBenchmark, at sizes they can finish.
+ *
+ * Unlike TimeAlgorithms, every result comes from warmed-up, forked runs. Each
+ * invocation sorts a fresh copy of the same input; the copy benchmarks of
+ * PrimitiveSortingBenchmark measure that copy alone, so it can be subtracted.
+ *
+ * Build the benchmarks jar with the Maven module in jmh, then run main to run
+ * all the sorting benchmark classes and write the results as CSV:
+ *     mvn -f jmh/pom.xml package
+ *     java -cp jmh/target/benchmarks.jar benchmarks.SortingBenchmark [results.csv]
+ * The forks are given 2 GB of heap, enough for up to 10^7 elements. The 10^8
+ * size needs several GB more, so it is only run on request:
+ *     java -jar jmh/target/benchmarks.jar \
+ *         "benchmarks\.(Primitive)?SortingBenchmark\." -p size=100000000 \
+ *         -jvmArgsAppend "-Xms16g -Xmx16g" -rf csv
+ */
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class SortingBenchmark {
+    // calls the sorts
+    private static final Targets TARGETS = Targets.load();
+
+    /**
+     * The shapes of input generated.
+     */
+    public enum Distribution {
+        // uniformly random over all ints
+        RANDOM,
+        // ascending, distinct values
+        SORTED,
+        // descending, distinct values
+        REVERSED,
+        // uniformly random among four values
+        FEW_UNIQUE,
+        // ascending to the middle, then descending
+        ORGAN_PIPE,
+        // sixteen ascending runs of equal length
+        SAWTOOTH;
+
+        /**
+         * Generates an input of the given size, the same for every run.
+         */
+        int[] generate(int size) {
+            SplittableRandom random = new SplittableRandom(size);
+            int[] values = new int[size];
+            int tooth = Math.max(1, size / 16);
+            for (int i = 0; i < size; ++i) {
+                switch (this) {
+                    case RANDOM:
+                        values[i] = random.nextInt();
+                        break;
+                    case SORTED:
+                        values[i] = i;
+                        break;
+                    case REVERSED:
+                        values[i] = size - i;
+                        break;
+                    case FEW_UNIQUE:
+                        values[i] = random.nextInt(4);
+                        break;
+                    case ORGAN_PIPE:
+                        values[i] = Math.min(i, size - 1 - i);
+                        break;
+                    default:
+                        values[i] = i % tooth;
+                        break;
+                }
+            }
+            return values;
+        }
+
+        /**
+         * Generates a boxed input of the given size, the same for every run.
+         */
+        Integer[] generateBoxed(int size) {
+            int[] values = generate(size);
+            Integer[] boxed = new Integer[size];
+            for (int i = 0; i < size; ++i) {
+                boxed[i] = values[i];
+            }
+            return boxed;
+        }
+    }
+
+    /**
+     * The object sorts compared.
+     */
+    public enum Algorithm {
+        MERGE_SORT,
+        PARALLEL_MERGE_SORT,
+        QUICK_SORT,
+        TIM_SORT,
+        PARALLEL_SAMPLE_SORT,
+        MERGE_SORT_DESCENDING,
+        SORT_BY_INT_KEY,
+        SELECT_MEDIAN,
+        PARTIAL_SORT_ONE_PERCENT,
+        QUATERNARY_HEAPSORT,
+        JDK_ARRAYS_SORT {
+            @Override
+            Consumer<Integer[]> sorter() {
+                return Arrays::sort;
+            }
+        };
+
+        /**
+         * Returns the code sorting an input with this algorithm.
+         */
+        Consumer<Integer[]> sorter() {
+            return TARGETS.sorter(this);
+        }
+    }
+
+    @Param({"MERGE_SORT", "PARALLEL_MERGE_SORT", "QUICK_SORT", "TIM_SORT",
+            "PARALLEL_SAMPLE_SORT", "MERGE_SORT_DESCENDING", "SORT_BY_INT_KEY",
+            "SELECT_MEDIAN", "PARTIAL_SORT_ONE_PERCENT", "QUATERNARY_HEAPSORT",
+            "JDK_ARRAYS_SORT"})
+    public Algorithm algorithm;
+
+    @Param({"RANDOM", "SORTED", "REVERSED", "FEW_UNIQUE", "ORGAN_PIPE", "SAWTOOTH"})
+    public Distribution distribution;
+
+    @Param({"10", "1000", "100000", "10000000"})
+    public int size;
+
+    // the input, never modified
+    private Integer[] input;
+    // the array sorted by each invocation
+    private Integer[] work;
+    // sorts with the algorithm
+    private Consumer<Integer[]> sorter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        input = distribution.generateBoxed(size);
+        work = new Integer[size];
+        sorter = algorithm.sorter();
+    }
+
+    @Benchmark
+    public Integer[] sort() {
+        System.arraycopy(input, 0, work, 0, size);
+        sorter.accept(work);
+        return work;
+    }
+
+    /**
+     * Runs SortingBenchmark, PrimitiveSortingBenchmark and
+     * QuadraticSortingBenchmark, writing the results as CSV.
+     *
+     * @param args the path of the CSV file, sorting-benchmark.csv by default
+     */
+    public static void main(String[] args) throws RunnerException {
+        String results = (args.length > 0) ? args[0] : "sorting-benchmark.csv";
+        // the pattern matches the names of all three classes
+        Options options = new OptionsBuilder()
+                .include(SortingBenchmark.class.getSimpleName())
+                .resultFormat(ResultFormatType.CSV)
+                .result(results)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,57 @@
+package benchmarks;
+
+import java.util.function.Consumer;
+
+/**
+ * The code under benchmark, as seen from the benchmarks package. It is
+ * implemented by BenchmarkTargets in the default package, next to the code it
+ * calls, and loaded by name, as the default package cannot be imported.
+ */
+public interface Targets {
+    /**
+     * Creates an empty deque of the given implementation.
+     *
+     * @param implementation one of the SimpleDeque implementations
+     * @param size number of elements the deque must hold
+     * @return the deque
+     * @throws IllegalArgumentException if implementation is not a SimpleDeque
+     */
+    BenchmarkDeque<Integer> createDeque(DequeBenchmark.Implementation implementation,
+                                        int size) throws IllegalArgumentException;
+
+    /**
+     * Returns the code sorting an input with the given algorithm.
+     *
+     * @param algorithm one of the algorithms of SortingAlgorithms or
+     *                  QuaternaryHeapsort
+     * @return the sorting code
+     * @throws IllegalArgumentException if algorithm is not one of those
+     */
+    Consumer<Integer[]> sorter(SortingBenchmark.Algorithm algorithm)
+            throws IllegalArgumentException;
+
+    void selectionSort(Integer[] values);
+
+    void insertionSort(Integer[] values);
+
+    void radixSort(int[] values);
+
+    void radixSort(long[] values);
+
+    int[] topK(int[] values, int k);
+
+    /**
+     * Loads the targets.
+     *
+     * @return the targets
+     * @throws IllegalStateException if BenchmarkTargets is not on the class path
+     */
+    static Targets load() throws IllegalStateException {
+        try {
+            return (Targets) Class.forName("BenchmarkTargets")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
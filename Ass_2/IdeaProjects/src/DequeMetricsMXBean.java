@@ -0,0 +1,54 @@
+/**
+ * Management interface exposing the metrics of an InstrumentedDeque over JMX.
+ */
+public interface DequeMetricsMXBean {
+    /**
+     * @return number of elements currently stored in the deque
+     */
+    int getSize();
+
+    /**
+     * @return the largest size the deque has reached
+     */
+    long getHighWaterMark();
+
+    /**
+     * @return number of elements pushed to either end
+     */
+    long getPushCount();
+
+    /**
+     * @return number of elements popped from either end
+     */
+    long getPopCount();
+
+    /**
+     * @return number of peeks at either end
+     */
+    long getPeekCount();
+
+    /**
+     * @return number of pops and peeks that found the deque empty
+     */
+    long getEmptyPopCount();
+
+    /**
+     * @return number of pushes rejected because the deque was full
+     */
+    long getRejectedPushCount();
+
+    /**
+     * @return number of times the underlying array has been grown
+     */
+    long getResizeCount();
+
+    /**
+     * @return upper bound of the median sampled operation latency, 0 if nothing was sampled
+     */
+    long getMedianLatencyNanos();
+
+    /**
+     * @return upper bound of the 99th percentile sampled operation latency, 0 if nothing was sampled
+     */
+    long getP99LatencyNanos();
+}
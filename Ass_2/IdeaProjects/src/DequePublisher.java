@@ -0,0 +1,217 @@
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A Flow.Publisher that hands the elements of a bounded SimpleDeque, from left
+ * to right, to a single subscriber as fast as the subscriber's demand allows.
+ *
+ * Producers add elements with offer(), which refuses them once the deque is
+ * full, so the subscriber's demand is propagated back to the producers without
+ * any intermediate unbounded buffer. Elements are drained in batches of up to
+ * batchSize with the deque's bulk popLeft, on the given executor.
+ *
+ * All access to the deque goes through this publisher, which locks it.
+ *
+ * @param <T> Element published.
+ */
+public class DequePublisher<T> implements Flow.Publisher<T> {
+    // the deque buffering elements not yet requested
+    private final SimpleDeque<T> deque;
+    // runs the drain loop, so onNext is never called from offer()'s caller
+    private final Executor executor;
+    // buffer for one batch of elements popped from the deque
+    private final T[] batch;
+    // the only subscription, null until subscribe() is called
+    private volatile DequeSubscription subscription;
+    // true once close() has been called
+    private volatile boolean closed = false;
+
+    /**
+     * Constructs a new publisher draining the given deque.
+     *
+     * @param deque a bounded deque to buffer elements in, must not be used externally
+     * @param executor runs the delivery of elements to the subscriber
+     * @param batchSize maximum number of elements popped from the deque at once
+     * @throws IllegalArgumentException if batchSize <= 0
+     * @requires deque != null, executor != null
+     */
+    @SuppressWarnings("unchecked")
+    public DequePublisher(SimpleDeque<T> deque, Executor executor, int batchSize)
+            throws IllegalArgumentException {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.deque = deque;
+        this.executor = executor;
+        this.batch = (T[]) new Object[batchSize];
+    }
+
+    /**
+     * Pushes an element to the right of the deque, unless it is full.
+     *
+     * @param item the element to publish
+     * @return true if the element was accepted, false if the deque is full
+     * @throws IllegalStateException if the publisher has been closed
+     * @throws NullPointerException if item is null
+     */
+    public boolean offer(T item) {
+        if (item == null) {
+            throw new NullPointerException();
+        }
+        if (closed) {
+            throw new IllegalStateException();
+        }
+        synchronized (deque) {
+            if (deque.isFull()) {
+                return false;
+            }
+            deque.pushRight(item);
+        }
+        DequeSubscription current = subscription;
+        if (current != null) {
+            current.signal();
+        }
+        return true;
+    }
+
+    /**
+     * Stops accepting elements. The subscriber receives onComplete once every
+     * element already in the deque has been delivered.
+     */
+    public void close() {
+        closed = true;
+        DequeSubscription current = subscription;
+        if (current != null) {
+            current.signal();
+        }
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException();
+        }
+        DequeSubscription created = new DequeSubscription(subscriber);
+        boolean rejected;
+        synchronized (this) {
+            rejected = subscription != null;
+            if (!rejected) {
+                subscription = created;
+            }
+        }
+        // signals outside the lock, the subscriber may call back into this
+        if (rejected) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("Already subscribed."));
+            return;
+        }
+        subscriber.onSubscribe(created);
+        created.signal();
+    }
+
+    /**
+     * The subscription of the single subscriber, running the drain loop.
+     */
+    private class DequeSubscription implements Flow.Subscription, Runnable {
+        private final Flow.Subscriber<? super T> subscriber;
+        // elements requested but not yet delivered
+        private final AtomicLong demand = new AtomicLong();
+        // number of signals since the drain loop last looked for work
+        private final AtomicInteger pending = new AtomicInteger();
+        // true once the subscription has been cancelled or terminated
+        private volatile boolean done = false;
+        // error to deliver as the final signal, set by an invalid request
+        private volatile Throwable error;
+
+        DequeSubscription(Flow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                // the drain loop delivers it, so signals stay serial
+                if (error == null) {
+                    error = new IllegalArgumentException("Non-positive request.");
+                }
+                signal();
+                return;
+            }
+            // adds n to the demand, saturating at Long.MAX_VALUE
+            demand.accumulateAndGet(n, (a, b) -> (a + b < 0) ? Long.MAX_VALUE : a + b);
+            signal();
+        }
+
+        @Override
+        public void cancel() {
+            done = true;
+        }
+
+        /**
+         * Schedules the drain loop unless it is already scheduled or running.
+         */
+        void signal() {
+            if (pending.getAndIncrement() == 0) {
+                executor.execute(this);
+            }
+        }
+
+        /**
+         * Delivers batches of elements while there is demand, until no signal
+         * arrived during the last pass.
+         */
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                drain();
+                missed = pending.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        /**
+         * Delivers as many elements as the deque holds and the demand allows.
+         */
+        private void drain() {
+            while (!done) {
+                if (error != null) {
+                    done = true;
+                    subscriber.onError(error);
+                    return;
+                }
+                long wanted = demand.get();
+                int count;
+                synchronized (deque) {
+                    count = (wanted == 0) ? 0 : deque.popLeft(batch,
+                            (int) Math.min(wanted, batch.length));
+                }
+                if (count == 0) {
+                    boolean drained;
+                    synchronized (deque) {
+                        drained = deque.isEmpty();
+                    }
+                    if (closed && drained) {
+                        done = true;
+                        subscriber.onComplete();
+                    }
+                    return;
+                }
+                demand.addAndGet(-count);
+                for (int i = 0; i < count && !done && error == null; ++i) {
+                    subscriber.onNext(batch[i]);
+                    batch[i] = null;
+                }
+            }
+        }
+    }
+}
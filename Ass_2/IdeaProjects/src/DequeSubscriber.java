@@ -0,0 +1,163 @@
+import java.util.NoSuchElementException;
+import java.util.concurrent.Flow;
+
+/**
+ * A Flow.Subscriber that pushes the elements it receives to the right of a
+ * bounded SimpleDeque, from which consumers pop them with poll().
+ *
+ * It only requests as many elements as the deque has free room for, so the
+ * deque never overflows and upstream is held back while it is full. Requests
+ * are made in batches of batchSize, once that much room is free, to keep the
+ * per-element signalling overhead low.
+ *
+ * All access to the deque goes through this subscriber, which locks it.
+ *
+ * @param <T> Element received.
+ */
+public class DequeSubscriber<T> implements Flow.Subscriber<T> {
+    // the deque buffering received elements
+    private final SimpleDeque<T> deque;
+    // maximum number of elements held by the deque
+    private final int capacity;
+    // number of elements requested at once
+    private final int batchSize;
+    // the subscription, null until onSubscribe() is called
+    private Flow.Subscription subscription;
+    // elements requested but not yet received
+    private long outstanding = 0;
+    // true once onComplete() or onError() has been called
+    private boolean terminated = false;
+    // the error passed to onError(), if any
+    private Throwable error;
+
+    /**
+     * Constructs a new subscriber filling the given deque.
+     *
+     * @param deque an empty deque to buffer elements in, must not be used externally
+     * @param capacity maximum number of elements to buffer, no more than the
+     *                 deque's own capacity
+     * @param batchSize number of elements requested at once, no more than capacity
+     * @throws IllegalArgumentException if capacity <= 0, batchSize <= 0 or
+     *         batchSize > capacity
+     * @requires deque != null
+     */
+    public DequeSubscriber(SimpleDeque<T> deque, int capacity, int batchSize)
+            throws IllegalArgumentException {
+        if (capacity <= 0 || batchSize <= 0 || batchSize > capacity) {
+            throw new IllegalArgumentException();
+        }
+        this.deque = deque;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        synchronized (deque) {
+            if (this.subscription != null) {
+                subscription.cancel();
+                return;
+            }
+            this.subscription = subscription;
+        }
+        requestMore();
+    }
+
+    @Override
+    public void onNext(T item) {
+        synchronized (deque) {
+            // never more than requested, so there is always room
+            deque.pushRight(item);
+            outstanding--;
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        synchronized (deque) {
+            error = throwable;
+            terminated = true;
+        }
+    }
+
+    @Override
+    public void onComplete() {
+        synchronized (deque) {
+            terminated = true;
+        }
+    }
+
+    /**
+     * Removes and returns the leftmost buffered element, requesting more from
+     * upstream once a batch worth of room is free.
+     *
+     * @return the leftmost element, or null if none is buffered
+     */
+    public T poll() {
+        T element;
+        synchronized (deque) {
+            if (deque.isEmpty()) {
+                return null;
+            }
+            element = deque.popLeft();
+        }
+        requestMore();
+        return element;
+    }
+
+    /**
+     * Returns the number of buffered elements.
+     * @return Number of elements.
+     */
+    public int size() {
+        synchronized (deque) {
+            return deque.size();
+        }
+    }
+
+    /**
+     * Returns whether upstream has completed or failed and every buffered
+     * element has been polled.
+     *
+     * @return true if no more elements will ever be returned by poll()
+     */
+    public boolean isDone() {
+        synchronized (deque) {
+            return terminated && deque.isEmpty();
+        }
+    }
+
+    /**
+     * Returns the error upstream failed with.
+     *
+     * @return the error passed to onError()
+     * @throws NoSuchElementException if upstream has not failed
+     */
+    public Throwable getError() throws NoSuchElementException {
+        synchronized (deque) {
+            if (error == null) {
+                throw new NoSuchElementException();
+            }
+            return error;
+        }
+    }
+
+    /**
+     * Requests as many whole batches of elements as the deque has room for on
+     * top of those already requested.
+     */
+    private void requestMore() {
+        Flow.Subscription current;
+        long wanted;
+        synchronized (deque) {
+            current = subscription;
+            long room = capacity - deque.size() - outstanding;
+            if (current == null || terminated || room < batchSize) {
+                return;
+            }
+            wanted = room - room % batchSize;
+            outstanding += wanted;
+        }
+        current.request(wanted);
+    }
+}
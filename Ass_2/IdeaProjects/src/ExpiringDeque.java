@@ -0,0 +1,439 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.LongSupplier;
+
+/**
+ * A deque whose elements expire a fixed time to live after they are pushed.
+ *
+ * Elements, their expiry times and their ids are kept in parallel arrays forming
+ * a power-of-two ring, as in SimpleArrayDeque. Every element is also filed in a
+ * hashed timing wheel under the tick in which it expires. Once the clock has
+ * moved past a tick, the whole bucket of that tick is expired in one batch, so
+ * no push or pop ever has to scan the deque, and size() is a counter of the
+ * live elements. Elements expire within one tick after their expiry time.
+ *
+ * Expired elements in the middle of the deque stay in the ring as dead slots
+ * until they reach an end, where they are dropped; both ends always hold live
+ * elements. Once the dead slots outnumber the live elements, or a push finds
+ * every slot in use, the live elements are compacted in order into a ring of
+ * twice their number, so the ring stays within a constant factor of size().
+ * Each element is stored at a position, counted from the last compaction, and
+ * its ring slot is that position masked by the ring length.
+ *
+ * @param <T> Element stored inside this deque.
+ */
+public class ExpiringDeque<T> implements SimpleDeque<T> {
+    // The default minimum capacity of the ring and of each wheel bucket
+    private static final int INITIAL_CAPACITY = 8;
+    // The maximum length of the ring
+    private static final int MAX_LENGTH = 1 << 30;
+    // id stored in a slot whose element has expired or been removed
+    private static final long DEAD = -1;
+
+    // The arrays in which the elements, expiry times and ids are stored.
+    private Object[] elements;
+    private long[] expiries;
+    private long[] ids;
+    // position of the leftmost slot, live unless the deque is empty
+    private long head = 0;
+    // position after the rightmost slot
+    private long tail = 0;
+    // number of live elements
+    private int live = 0;
+    // id of the next element pushed, ids are never reused
+    private long nextId = 0;
+
+    // time to live of every element
+    private final long ttl;
+    // source of the current time
+    private final LongSupplier clock;
+    // length of a wheel tick, in units of clock
+    private final long tickDuration;
+    // number of buckets minus one, the wheel has a power-of-two size
+    private final int wheelMask;
+    // ids and positions of the elements filed in each bucket
+    private final long[][] bucketIds;
+    private final long[][] bucketPositions;
+    private final int[] bucketSizes;
+    // the compaction each bucket was last refiled in
+    private final int[] bucketCompactions;
+    // number of compactions so far
+    private int compactions = 0;
+    // the earliest tick whose bucket has not been expired yet
+    private long currentTick;
+
+    /**
+     * Constructs a new expiring deque with unlimited capacity.
+     *
+     * @param ttl time to live of every element, in units of clock
+     * @param tickDuration expiry granularity, in units of clock
+     * @param wheelSize number of wheel buckets, rounded up to a power of two
+     * @param clock source of the current time, must never go backwards
+     * @throws IllegalArgumentException if ttl, tickDuration or wheelSize is <= 0,
+     *         or wheelSize > 2^30
+     * @requires clock != null
+     */
+    public ExpiringDeque(long ttl, long tickDuration, int wheelSize, LongSupplier clock)
+            throws IllegalArgumentException {
+        if (ttl <= 0 || tickDuration <= 0 || wheelSize <= 0 || wheelSize > (1 << 30)) {
+            throw new IllegalArgumentException();
+        }
+        this.ttl = ttl;
+        this.tickDuration = tickDuration;
+        this.clock = clock;
+        int buckets = Integer.highestOneBit(wheelSize);
+        if (buckets < wheelSize) {
+            buckets <<= 1;
+        }
+        wheelMask = buckets - 1;
+        bucketIds = new long[buckets][];
+        bucketPositions = new long[buckets][];
+        bucketSizes = new int[buckets];
+        bucketCompactions = new int[buckets];
+        elements = new Object[INITIAL_CAPACITY];
+        expiries = new long[INITIAL_CAPACITY];
+        ids = new long[INITIAL_CAPACITY];
+        currentTick = Math.floorDiv(clock.getAsLong(), tickDuration);
+    }
+
+    /**
+     * Expires every element whose tick has passed according to the clock.
+     * Every push, pop, peek and read of the size does this first as well.
+     *
+     * @return the number of elements expired
+     * time complexity O(elements filed in the passed ticks), memory complexity O(1)
+     */
+    public int expire() {
+        return advance(clock.getAsLong());
+    }
+
+    @Override
+    // time complexity O(1) amortised, memory complexity O(1)
+    public boolean isEmpty() {
+        advance(clock.getAsLong());
+        return live == 0;
+    }
+
+    @Override
+    // time complexity O(1), memory complexity O(1)
+    public boolean isFull() {
+        return false;
+    }
+
+    @Override
+    // time complexity O(1) amortised, memory complexity O(1)
+    public int size() {
+        advance(clock.getAsLong());
+        return live;
+    }
+
+    @Override
+    // time complexity O(1) amortised, memory complexity O(1) amortised
+    public void pushLeft(T e) throws RuntimeException {
+        long now = clock.getAsLong();
+        advance(now);
+        ensureRoom();
+        store(--head, e, now + ttl);
+    }
+
+    @Override
+    // time complexity O(1) amortised, memory complexity O(1) amortised
+    public void pushRight(T e) throws RuntimeException {
+        long now = clock.getAsLong();
+        advance(now);
+        ensureRoom();
+        store(tail++, e, now + ttl);
+    }
+
+    @Override
+    // time complexity O(1) amortised, memory complexity O(1)
+    public T peekLeft() throws NoSuchElementException {
+        advance(clock.getAsLong());
+        if (live == 0) {
+            throw new NoSuchElementException();
+        }
+        return elementAt(head);
+    }
+
+    @Override
+    // time complexity O(1) amortised, memory complexity O(1)
+    public T peekRight() throws NoSuchElementException {
+        advance(clock.getAsLong());
+        if (live == 0) {
+            throw new NoSuchElementException();
+        }
+        return elementAt(tail - 1);
+    }
+
+    @Override
+    // time complexity O(1) amortised, memory complexity O(1)
+    public T popLeft() throws NoSuchElementException {
+        advance(clock.getAsLong());
+        if (live == 0) {
+            throw new NoSuchElementException();
+        }
+        T element = elementAt(head);
+        kill(head);
+        trimEnds();
+        return element;
+    }
+
+    @Override
+    // time complexity O(1) amortised, memory complexity O(1)
+    public T popRight() throws NoSuchElementException {
+        advance(clock.getAsLong());
+        if (live == 0) {
+            throw new NoSuchElementException();
+        }
+        T element = elementAt(tail - 1);
+        kill(tail - 1);
+        trimEnds();
+        return element;
+    }
+
+    @Override
+    // time complexity O(1) amortised, memory complexity O(1)
+    public Iterator<T> iterator() {
+        advance(clock.getAsLong());
+        return new LiveIterator(false);
+    }
+
+    @Override
+    // time complexity O(1) amortised, memory complexity O(1)
+    public Iterator<T> reverseIterator() {
+        advance(clock.getAsLong());
+        return new LiveIterator(true);
+    }
+
+    /**
+     * Stores an element at the given position and files it in the wheel.
+     * time complexity O(1) amortised, memory complexity O(1) amortised
+     */
+    private void store(long position, T e, long expiry) {
+        int slot = slot(position);
+        long id = nextId++;
+        elements[slot] = e;
+        expiries[slot] = expiry;
+        ids[slot] = id;
+        live++;
+        file(bucketOf(expiry), id, position);
+    }
+
+    /**
+     * Returns the wheel bucket of an element expiring at the given time.
+     * An element expiring in an already expired tick goes in the next batch.
+     * time complexity O(1), memory complexity O(1)
+     */
+    private int bucketOf(long expiry) {
+        long tick = Math.max(Math.floorDiv(expiry, tickDuration), currentTick);
+        return (int) tick & wheelMask;
+    }
+
+    /**
+     * Files the element with the given id and position in a wheel bucket.
+     * time complexity O(1) amortised, memory complexity O(1) amortised
+     */
+    private void file(int bucket, long id, long position) {
+        int count = bucketSizes[bucket];
+        if (bucketIds[bucket] == null) {
+            bucketIds[bucket] = new long[INITIAL_CAPACITY];
+            bucketPositions[bucket] = new long[INITIAL_CAPACITY];
+        } else if (count == bucketIds[bucket].length) {
+            bucketIds[bucket] = Arrays.copyOf(bucketIds[bucket], count << 1);
+            bucketPositions[bucket] = Arrays.copyOf(bucketPositions[bucket],
+                    count << 1);
+        }
+        bucketIds[bucket][count] = id;
+        bucketPositions[bucket][count] = position;
+        bucketSizes[bucket] = count + 1;
+    }
+
+    /**
+     * Expires the buckets of every tick that ended at or before now.
+     *
+     * @param now the current time
+     * @return the number of elements expired
+     * time complexity O(elements filed in the passed ticks), memory complexity O(1)
+     */
+    private int advance(long now) {
+        long nowTick = Math.floorDiv(now, tickDuration);
+        if (currentTick >= nowTick) {
+            return 0;
+        }
+        int before = live;
+        // after a full turn every bucket has been visited once
+        long lastTick = Math.min(nowTick, currentTick + wheelMask + 1);
+        for (long tick = currentTick; tick < lastTick; ++tick) {
+            expireBucket((int) tick & wheelMask, now);
+        }
+        currentTick = nowTick;
+        trimEnds();
+        return before - live;
+    }
+
+    /**
+     * Expires the due elements filed in a bucket, and keeps the ones filed for
+     * a later turn of the wheel.
+     * time complexity O(bucket size), memory complexity O(1)
+     */
+    private void expireBucket(int bucket, long now) {
+        long[] bucketId = bucketIds[bucket];
+        long[] bucketPosition = bucketPositions[bucket];
+        int kept = 0;
+        for (int i = 0; i < bucketSizes[bucket]; ++i) {
+            long position = bucketPosition[i];
+            // skips elements that have been popped since they were filed
+            if (position < head || position >= tail || ids[slot(position)] != bucketId[i]) {
+                continue;
+            }
+            if (expiries[slot(position)] < now) {
+                kill(position);
+            } else {
+                bucketId[kept] = bucketId[i];
+                bucketPosition[kept++] = position;
+            }
+        }
+        bucketSizes[bucket] = kept;
+    }
+
+    /**
+     * Marks the live element at the given position as dead.
+     * time complexity O(1), memory complexity O(1)
+     */
+    private void kill(long position) {
+        int slot = slot(position);
+        elements[slot] = null;
+        ids[slot] = DEAD;
+        live--;
+    }
+
+    /**
+     * Drops the dead slots at both ends of the ring, and compacts the ring if
+     * the dead slots left in the middle outnumber the live elements.
+     * time complexity O(1) amortised, memory complexity O(1) amortised
+     */
+    private void trimEnds() {
+        while (head < tail && ids[slot(head)] == DEAD) {
+            head++;
+        }
+        while (head < tail && ids[slot(tail - 1)] == DEAD) {
+            tail--;
+        }
+        if (tail - head - live > live) {
+            compact();
+        }
+    }
+
+    /**
+     * Compacts the ring if all its slots are in use, which grows it when the
+     * live elements fill at least half of it.
+     * time complexity O(n) when compacting, otherwise O(1)
+     */
+    private void ensureRoom() {
+        if (tail - head >= elements.length) {
+            compact();
+        }
+    }
+
+    /**
+     * Moves the live elements, in order, to positions 0 to live - 1 of a new
+     * ring of at least twice their number, dropping every dead slot, and
+     * files them in the wheel again under their new positions. The buckets
+     * they are filed in are emptied first; any other bucket only holds
+     * entries of dead elements, which expireBucket skips.
+     * time complexity O(tail - head), memory complexity O(live)
+     */
+    private void compact() {
+        int newLength = INITIAL_CAPACITY;
+        while (newLength < 2L * live && newLength < MAX_LENGTH) {
+            newLength <<= 1;
+        }
+        if (newLength <= live)
+            throw new IllegalStateException("Deque is too big.");
+        Object[] newElements = new Object[newLength];
+        long[] newExpiries = new long[newLength];
+        long[] newIds = new long[newLength];
+        int to = 0;
+        for (long position = head; position < tail; ++position) {
+            int from = slot(position);
+            if (ids[from] != DEAD) {
+                newElements[to] = elements[from];
+                newExpiries[to] = expiries[from];
+                newIds[to++] = ids[from];
+            }
+        }
+        elements = newElements;
+        expiries = newExpiries;
+        ids = newIds;
+        head = 0;
+        tail = live;
+        compactions++;
+        for (int position = 0; position < live; ++position) {
+            int bucket = bucketOf(expiries[position]);
+            if (bucketCompactions[bucket] != compactions) {
+                bucketCompactions[bucket] = compactions;
+                bucketSizes[bucket] = 0;
+            }
+            file(bucket, ids[position], position);
+        }
+    }
+
+    /**
+     * Returns the length of the ring, for tests.
+     *
+     * @return number of slots in the ring
+     */
+    int ringLength() {
+        return elements.length;
+    }
+
+    /**
+     * Returns the ring slot of the given position.
+     */
+    private int slot(long position) {
+        return (int) position & (elements.length - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T elementAt(long position) {
+        return (T) elements[slot(position)];
+    }
+
+    /**
+     * An implementation class of Iterator.
+     * Walks the positions between head and tail, skipping dead slots.
+     */
+    private class LiveIterator implements Iterator<T> {
+        // true if the iterator runs from right to left
+        private final boolean descending;
+        // the next position to look at
+        private long cursor;
+
+        LiveIterator(boolean descending) {
+            this.descending = descending;
+            this.cursor = descending ? tail - 1 : head;
+        }
+
+        @Override
+        // time complexity O(dead slots skipped), which is O(1) amortised over a
+        // traversal of an unmodified deque, as the dead slots never outnumber
+        // the live elements; memory complexity O(1)
+        public boolean hasNext() {
+            while (cursor >= head && cursor < tail && ids[slot(cursor)] == DEAD) {
+                cursor += descending ? -1 : 1;
+            }
+            return cursor >= head && cursor < tail;
+        }
+
+        @Override
+        // time complexity O(1) amortised, memory complexity O(1)
+        public T next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            T element = elementAt(cursor);
+            cursor += descending ? -1 : 1;
+            return element;
+        }
+    }
+}
@@ -0,0 +1,372 @@
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Sorts files of records too large to be sorted in memory.
+ *
+ * The input is read in chunks taking up about chunkBytes bytes of heap, each
+ * chunk is sorted with SortingAlgorithms.timSort and written to a temporary
+ * run file. The runs are then merged, up to MAX_FAN_IN at a time, with a
+ * quaternary heap of run cursors kept in order by
+ * QuaternaryHeapsort.quaternaryDownheap. All reads and writes go through
+ * IO_BUFFER_SIZE byte buffers.
+ *
+ * Records are byte arrays, either of a fixed length or ended by a delimiter.
+ * The sort is stable: records that compare equal keep their input order.
+ */
+public class ExternalMergeSort {
+    // maximum number of runs merged at once
+    static final int MAX_FAN_IN = 64;
+    // estimated heap bytes a record of a chunk takes on top of its payload:
+    // the byte[] header and padding, and its references in the chunk list,
+    // the sorted array and the merge buffer of timSort
+    static final int RECORD_OVERHEAD = 48;
+    // size of the buffer of every file read or written
+    private static final int IO_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * How records are laid out in a file.
+     */
+    static final class Format {
+        // length of every record, or -1 if records are delimited
+        private final int recordLength;
+        // byte ending every record, if records are delimited
+        private final byte delimiter;
+
+        private Format(int recordLength, byte delimiter) {
+            this.recordLength = recordLength;
+            this.delimiter = delimiter;
+        }
+
+        /**
+         * Returns the format of records of recordLength bytes each.
+         *
+         * @param recordLength the length of every record
+         * @return the format
+         * @throws IllegalArgumentException if recordLength <= 0
+         */
+        static Format fixed(int recordLength) throws IllegalArgumentException {
+            if (recordLength <= 0) {
+                throw new IllegalArgumentException();
+            }
+            return new Format(recordLength, (byte) 0);
+        }
+
+        /**
+         * Returns the format of records ended by the given delimiter, which is
+         * not part of the record, e.g. '\n' for lines. The last record of an
+         * input may lack its delimiter; every record is written with one.
+         *
+         * @param delimiter the byte ending every record
+         * @return the format
+         */
+        static Format delimited(byte delimiter) {
+            return new Format(-1, delimiter);
+        }
+
+        private boolean isDelimited() {
+            return recordLength == -1;
+        }
+    }
+
+    /**
+     * Sorts the records of the input file into the output file.
+     *
+     * @param input the file to sort
+     * @param output the file to write the sorted records to, replaced if it
+     *               exists, and not the same file as input
+     * @param format how records are laid out in both files
+     * @param order the order to sort the records in
+     * @param chunkBytes the heap, in bytes, taken up by the records sorted in
+     *                   memory at once, counting RECORD_OVERHEAD bytes per
+     *                   record on top of its length
+     * @param tempDirectory the directory to write the run files to
+     * @throws IOException if a file cannot be read or written, or the input
+     *         ends with a partial fixed-length record
+     * @throws IllegalArgumentException if chunkBytes <= 0
+     * @requires all arguments != null
+     */
+    static void sort(Path input, Path output, Format format,
+                     Comparator<? super byte[]> order, long chunkBytes,
+                     Path tempDirectory) throws IOException, IllegalArgumentException {
+        if (chunkBytes <= 0) {
+            throw new IllegalArgumentException();
+        }
+        // every run file created, deleted once the sort ends or fails
+        List<Path> temporary = new ArrayList<>();
+        try {
+            List<Path> runs = writeRuns(input, format, order, chunkBytes,
+                    tempDirectory, temporary);
+            // merges MAX_FAN_IN runs at a time into longer runs, until the
+            // last merge can write the output
+            while (runs.size() > MAX_FAN_IN) {
+                List<Path> merged = new ArrayList<>();
+                for (int i = 0; i < runs.size(); i += MAX_FAN_IN) {
+                    List<Path> group = runs.subList(i,
+                            Math.min(i + MAX_FAN_IN, runs.size()));
+                    Path run = createRun(tempDirectory, temporary);
+                    merged.add(run);
+                    merge(group, run, format, order);
+                    for (Path done : group) {
+                        Files.delete(done);
+                    }
+                }
+                runs = merged;
+            }
+            merge(runs, output, format, order);
+        } finally {
+            for (Path run : temporary) {
+                Files.deleteIfExists(run);
+            }
+        }
+    }
+
+    /**
+     * Creates an empty run file, and adds it to the temporary files.
+     */
+    private static Path createRun(Path tempDirectory, List<Path> temporary)
+            throws IOException {
+        Path run = Files.createTempFile(tempDirectory, "run", ".tmp");
+        temporary.add(run);
+        return run;
+    }
+
+    /**
+     * Reads the input in chunks, and writes each chunk sorted to a new run file.
+     *
+     * @return the run files, in input order
+     * time complexity O(n log(chunk size)), memory complexity O(chunkBytes)
+     */
+    private static List<Path> writeRuns(Path input, Format format,
+            Comparator<? super byte[]> order, long chunkBytes, Path tempDirectory,
+            List<Path> temporary) throws IOException {
+        List<Path> runs = new ArrayList<>();
+        try (RecordInput in = new RecordInput(Files.newInputStream(input), format)) {
+            List<byte[]> chunk = new ArrayList<>();
+            byte[] record = in.next();
+            while (record != null) {
+                long bytes = 0;
+                while (record != null && bytes < chunkBytes) {
+                    chunk.add(record);
+                    bytes += record.length + RECORD_OVERHEAD;
+                    record = in.next();
+                }
+                byte[][] sorted = chunk.toArray(new byte[0][]);
+                chunk.clear();
+                SortingAlgorithms.timSort(sorted, order, false);
+                Path run = createRun(tempDirectory, temporary);
+                runs.add(run);
+                try (OutputStream out = newOutput(run)) {
+                    for (byte[] sortedRecord : sorted) {
+                        write(out, sortedRecord, format);
+                    }
+                }
+            }
+        }
+        return runs;
+    }
+
+    /**
+     * Merges sorted run files into the output file, with a quaternary heap
+     * holding a cursor on the next record of every run.
+     *
+     * time complexity O(n log(runs)), memory complexity O(runs)
+     */
+    private static void merge(List<Path> runs, Path output, Format format,
+            Comparator<? super byte[]> order) throws IOException {
+        RunCursor[] heap = new RunCursor[runs.size()];
+        int size = 0;
+        try (OutputStream out = newOutput(output)) {
+            for (int i = 0; i < runs.size(); ++i) {
+                RunCursor cursor = new RunCursor(new RecordInput(
+                        Files.newInputStream(runs.get(i)), format), i, order);
+                boolean hasRecord;
+                try {
+                    hasRecord = cursor.advance();
+                } catch (IOException e) {
+                    // not in the heap yet, so the finally below misses it
+                    try {
+                        cursor.close();
+                    } catch (IOException suppressed) {
+                        e.addSuppressed(suppressed);
+                    }
+                    throw e;
+                }
+                if (hasRecord) {
+                    heap[size++] = cursor;
+                } else {
+                    cursor.close();
+                }
+            }
+            for (int node = (size - 2) / 4; node >= 0 && size > 1; --node) {
+                QuaternaryHeapsort.quaternaryDownheap(heap, node, size);
+            }
+            while (size > 0) {
+                RunCursor top = heap[0];
+                write(out, top.record, format);
+                if (!top.advance()) {
+                    top.close();
+                    heap[0] = heap[--size];
+                    heap[size] = null;
+                }
+                if (size > 1) {
+                    QuaternaryHeapsort.quaternaryDownheap(heap, 0, size);
+                }
+            }
+        } finally {
+            for (int i = 0; i < size; ++i) {
+                heap[i].close();
+            }
+        }
+    }
+
+    private static OutputStream newOutput(Path file) throws IOException {
+        return new BufferedOutputStream(Files.newOutputStream(file), IO_BUFFER_SIZE);
+    }
+
+    private static void write(OutputStream out, byte[] record, Format format)
+            throws IOException {
+        out.write(record);
+        if (format.isDelimited()) {
+            out.write(format.delimiter);
+        }
+    }
+
+    /**
+     * The next record of a run, ordered so that the max heap of
+     * QuaternaryHeapsort has the smallest record, from the earliest run among
+     * equal ones, at its root.
+     */
+    private static final class RunCursor implements Comparable<RunCursor>,
+            AutoCloseable {
+        private final RecordInput in;
+        // position of the run in input order, breaks ties between records
+        private final int run;
+        private final Comparator<? super byte[]> order;
+        // the current record of the run
+        private byte[] record;
+
+        RunCursor(RecordInput in, int run, Comparator<? super byte[]> order) {
+            this.in = in;
+            this.run = run;
+            this.order = order;
+        }
+
+        /**
+         * Moves to the next record of the run.
+         *
+         * @return false if the run is exhausted
+         */
+        boolean advance() throws IOException {
+            record = in.next();
+            return record != null;
+        }
+
+        @Override
+        public int compareTo(RunCursor other) {
+            int comparison = order.compare(other.record, record);
+            return (comparison != 0) ? comparison : Integer.compare(other.run, run);
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * Reads records of a format from a stream, through its own buffer.
+     */
+    private static final class RecordInput implements AutoCloseable {
+        private final InputStream in;
+        private final Format format;
+        private final byte[] buffer = new byte[IO_BUFFER_SIZE];
+        // position of the next unread byte of buffer
+        private int position = 0;
+        // number of valid bytes in buffer
+        private int limit = 0;
+
+        RecordInput(InputStream in, Format format) {
+            this.in = in;
+            this.format = format;
+        }
+
+        /**
+         * Reads the next record.
+         *
+         * @return the record, or null at the end of the stream
+         * @throws IOException if the stream cannot be read, or ends with a
+         *         partial fixed-length record
+         */
+        byte[] next() throws IOException {
+            if (position == limit && !fill()) {
+                return null;
+            }
+            return format.isDelimited() ? nextDelimited() : nextFixed();
+        }
+
+        private byte[] nextFixed() throws IOException {
+            byte[] record = new byte[format.recordLength];
+            int filled = 0;
+            while (filled < record.length) {
+                if (position == limit && !fill()) {
+                    throw new IOException("Truncated record.");
+                }
+                int count = Math.min(record.length - filled, limit - position);
+                System.arraycopy(buffer, position, record, filled, count);
+                position += count;
+                filled += count;
+            }
+            return record;
+        }
+
+        private byte[] nextDelimited() throws IOException {
+            byte[] record = new byte[0];
+            while (true) {
+                int start = position;
+                while (position < limit && buffer[position] != format.delimiter) {
+                    ++position;
+                }
+                int length = record.length;
+                record = Arrays.copyOf(record, length + position - start);
+                System.arraycopy(buffer, start, record, length, position - start);
+                if (position < limit) {
+                    // skips the delimiter
+                    ++position;
+                    return record;
+                }
+                if (!fill()) {
+                    return record;
+                }
+            }
+        }
+
+        /**
+         * Refills the buffer.
+         *
+         * @return false if the stream has ended
+         */
+        private boolean fill() throws IOException {
+            int count = in.read(buffer);
+            if (count <= 0) {
+                return false;
+            }
+            position = 0;
+            limit = count;
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,513 @@
+import java.lang.management.ManagementFactory;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * A SimpleDeque decorator that records how the wrapped deque is used: counts of
+ * each operation, pops and peeks on an empty deque, rejected pushes, resizes of
+ * a SimpleArrayDeque, the high-water mark of its size and, optionally, sampled
+ * latency histograms of each operation.
+ *
+ * Counters are striped LongAdders, so recording is cheap and the metrics can be
+ * read from another thread through snapshot() or over JMX at any time.
+ *
+ * @param <T> Element stored inside this deque.
+ */
+public class InstrumentedDeque<T> implements SimpleDeque<T>, DequeMetricsMXBean {
+    /**
+     * The operations whose counts and latencies are recorded.
+     */
+    public enum Operation {
+        PUSH_LEFT, PUSH_RIGHT, PEEK_LEFT, PEEK_RIGHT, POP_LEFT, POP_RIGHT
+    }
+
+    // number of power-of-two latency buckets, bucket i holds [2^i, 2^(i+1)) ns
+    private static final int BUCKETS = 64;
+    private static final Operation[] OPERATIONS = Operation.values();
+
+    // the wrapped deque
+    private final SimpleDeque<T> delegate;
+    // record the latency of one in every latencySampleInterval operations, 0 disables it
+    private final int latencySampleInterval;
+    // operations left until the next latency sample, racy by design
+    private int untilSample;
+    // operation counts, indexed by Operation.ordinal()
+    private final LongAdder[] counts = new LongAdder[OPERATIONS.length];
+    private final LongAdder emptyPops = new LongAdder();
+    private final LongAdder rejectedPushes = new LongAdder();
+    private final LongAccumulator highWaterMark = new LongAccumulator(Math::max, 0);
+    // resizes of the delegate already seen, only used for SimpleArrayDeque
+    private long seenResizes;
+    private final LongAdder resizes = new LongAdder();
+    // latency histograms, bucket b of operation o is at o * BUCKETS + b
+    private final AtomicLongArray latencies;
+
+    /**
+     * Constructs a new instrumented deque without latency sampling.
+     *
+     * @param delegate the deque to record the operations of
+     * @requires delegate != null
+     */
+    public InstrumentedDeque(SimpleDeque<T> delegate) {
+        this(delegate, 0);
+    }
+
+    /**
+     * Constructs a new instrumented deque which times one in every
+     * latencySampleInterval operations.
+     *
+     * @param delegate the deque to record the operations of
+     * @param latencySampleInterval sampling interval, 0 disables latency sampling
+     * @throws IllegalArgumentException if latencySampleInterval < 0
+     * @requires delegate != null
+     */
+    public InstrumentedDeque(SimpleDeque<T> delegate, int latencySampleInterval)
+            throws IllegalArgumentException {
+        if (latencySampleInterval < 0) {
+            throw new IllegalArgumentException();
+        }
+        this.delegate = delegate;
+        this.latencySampleInterval = latencySampleInterval;
+        this.untilSample = latencySampleInterval;
+        for (int i = 0; i < counts.length; ++i) {
+            counts[i] = new LongAdder();
+        }
+        this.latencies = new AtomicLongArray(latencySampleInterval == 0 ? 0
+                : OPERATIONS.length * BUCKETS);
+        if (delegate instanceof SimpleArrayDeque) {
+            seenResizes = ((SimpleArrayDeque<T>) delegate).resizeCount();
+        }
+        highWaterMark.accumulate(delegate.size());
+    }
+
+    /**
+     * Registers this deque's metrics with the platform MBean server under
+     * SimpleDeque:type=InstrumentedDeque,name=&lt;name&gt;.
+     *
+     * @param name value of the name key of the ObjectName
+     * @return the ObjectName the metrics were registered under
+     * @throws IllegalStateException if the registration fails
+     */
+    public ObjectName registerMBean(String name) {
+        try {
+            ObjectName objectName = new ObjectName("SimpleDeque:type=InstrumentedDeque,name="
+                    + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            return objectName;
+        } catch (JMException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns a consistent-enough copy of all metrics recorded so far.
+     * Counters are read one after another, so concurrent updates may be
+     * partially included.
+     *
+     * @return a snapshot of the metrics
+     * time complexity O(1), memory complexity O(1)
+     */
+    public Snapshot snapshot() {
+        long[] operationCounts = new long[OPERATIONS.length];
+        for (int i = 0; i < operationCounts.length; ++i) {
+            operationCounts[i] = counts[i].sum();
+        }
+        long[] histograms = new long[latencies.length()];
+        for (int i = 0; i < histograms.length; ++i) {
+            histograms[i] = latencies.get(i);
+        }
+        return new Snapshot(delegate.size(), highWaterMark.get(), operationCounts,
+                emptyPops.sum(), rejectedPushes.sum(), resizes.sum(), histograms);
+    }
+
+    @Override
+    // time complexity O(1), memory complexity O(1)
+    public boolean isEmpty() {
+        return delegate.isEmpty();
+    }
+
+    @Override
+    // time complexity O(1), memory complexity O(1)
+    public boolean isFull() {
+        return delegate.isFull();
+    }
+
+    @Override
+    // time complexity O(1), memory complexity O(1)
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    // time complexity O(1), memory complexity O(1)
+    public void pushLeft(T e) throws RuntimeException {
+        long start = startSample();
+        try {
+            delegate.pushLeft(e);
+        } catch (RuntimeException ex) {
+            rejectedPushes.increment();
+            throw ex;
+        }
+        endSample(Operation.PUSH_LEFT, start);
+        counts[Operation.PUSH_LEFT.ordinal()].increment();
+        afterPush();
+    }
+
+    @Override
+    // time complexity O(1), memory complexity O(1)
+    public void pushRight(T e) throws RuntimeException {
+        long start = startSample();
+        try {
+            delegate.pushRight(e);
+        } catch (RuntimeException ex) {
+            rejectedPushes.increment();
+            throw ex;
+        }
+        endSample(Operation.PUSH_RIGHT, start);
+        counts[Operation.PUSH_RIGHT.ordinal()].increment();
+        afterPush();
+    }
+
+    @Override
+    // time complexity O(1), memory complexity O(1)
+    public T peekLeft() throws NoSuchElementException {
+        long start = startSample();
+        T element;
+        try {
+            element = delegate.peekLeft();
+        } catch (NoSuchElementException ex) {
+            emptyPops.increment();
+            throw ex;
+        }
+        endSample(Operation.PEEK_LEFT, start);
+        counts[Operation.PEEK_LEFT.ordinal()].increment();
+        return element;
+    }
+
+    @Override
+    // time complexity O(1), memory complexity O(1)
+    public T peekRight() throws NoSuchElementException {
+        long start = startSample();
+        T element;
+        try {
+            element = delegate.peekRight();
+        } catch (NoSuchElementException ex) {
+            emptyPops.increment();
+            throw ex;
+        }
+        endSample(Operation.PEEK_RIGHT, start);
+        counts[Operation.PEEK_RIGHT.ordinal()].increment();
+        return element;
+    }
+
+    @Override
+    // time complexity O(1), memory complexity O(1)
+    public T popLeft() throws NoSuchElementException {
+        long start = startSample();
+        T element;
+        try {
+            element = delegate.popLeft();
+        } catch (NoSuchElementException ex) {
+            emptyPops.increment();
+            throw ex;
+        }
+        endSample(Operation.POP_LEFT, start);
+        counts[Operation.POP_LEFT.ordinal()].increment();
+        return element;
+    }
+
+    @Override
+    // time complexity O(1), memory complexity O(1)
+    public T popRight() throws NoSuchElementException {
+        long start = startSample();
+        T element;
+        try {
+            element = delegate.popRight();
+        } catch (NoSuchElementException ex) {
+            emptyPops.increment();
+            throw ex;
+        }
+        endSample(Operation.POP_RIGHT, start);
+        counts[Operation.POP_RIGHT.ordinal()].increment();
+        return element;
+    }
+
+    @Override
+    // time complexity O(len), memory complexity O(1)
+    public void pushAllRight(T[] src, int off, int len) throws RuntimeException {
+        try {
+            delegate.pushAllRight(src, off, len);
+        } catch (IndexOutOfBoundsException ex) {
+            throw ex;
+        } catch (RuntimeException ex) {
+            rejectedPushes.increment();
+            throw ex;
+        }
+        counts[Operation.PUSH_RIGHT.ordinal()].add(len);
+        afterPush();
+    }
+
+    @Override
+    // time complexity O(len), memory complexity O(1)
+    public void pushAllLeft(T[] src, int off, int len) throws RuntimeException {
+        try {
+            delegate.pushAllLeft(src, off, len);
+        } catch (IndexOutOfBoundsException ex) {
+            throw ex;
+        } catch (RuntimeException ex) {
+            rejectedPushes.increment();
+            throw ex;
+        }
+        counts[Operation.PUSH_LEFT.ordinal()].add(len);
+        afterPush();
+    }
+
+    @Override
+    // time complexity O(max), memory complexity O(1)
+    public int popLeft(T[] dst, int max) {
+        int count = delegate.popLeft(dst, max);
+        counts[Operation.POP_LEFT.ordinal()].add(count);
+        if (count == 0 && max > 0) {
+            emptyPops.increment();
+        }
+        return count;
+    }
+
+    @Override
+    // time complexity O(max), memory complexity O(1)
+    public int popRight(T[] dst, int max) {
+        int count = delegate.popRight(dst, max);
+        counts[Operation.POP_RIGHT.ordinal()].add(count);
+        if (count == 0 && max > 0) {
+            emptyPops.increment();
+        }
+        return count;
+    }
+
+    @Override
+    // time complexity O(1), memory complexity O(1)
+    public Iterator<T> iterator() {
+        return delegate.iterator();
+    }
+
+    @Override
+    // time complexity O(1), memory complexity O(1)
+    public Iterator<T> reverseIterator() {
+        return delegate.reverseIterator();
+    }
+
+    @Override
+    public int getSize() {
+        return delegate.size();
+    }
+
+    @Override
+    public long getHighWaterMark() {
+        return highWaterMark.get();
+    }
+
+    @Override
+    public long getPushCount() {
+        return counts[Operation.PUSH_LEFT.ordinal()].sum()
+                + counts[Operation.PUSH_RIGHT.ordinal()].sum();
+    }
+
+    @Override
+    public long getPopCount() {
+        return counts[Operation.POP_LEFT.ordinal()].sum()
+                + counts[Operation.POP_RIGHT.ordinal()].sum();
+    }
+
+    @Override
+    public long getPeekCount() {
+        return counts[Operation.PEEK_LEFT.ordinal()].sum()
+                + counts[Operation.PEEK_RIGHT.ordinal()].sum();
+    }
+
+    @Override
+    public long getEmptyPopCount() {
+        return emptyPops.sum();
+    }
+
+    @Override
+    public long getRejectedPushCount() {
+        return rejectedPushes.sum();
+    }
+
+    @Override
+    public long getResizeCount() {
+        return resizes.sum();
+    }
+
+    @Override
+    public long getMedianLatencyNanos() {
+        return snapshot().latencyPercentileNanos(0.5);
+    }
+
+    @Override
+    public long getP99LatencyNanos() {
+        return snapshot().latencyPercentileNanos(0.99);
+    }
+
+    /**
+     * Updates the high-water mark and resize count after a successful push.
+     * time complexity O(1), memory complexity O(1)
+     */
+    private void afterPush() {
+        highWaterMark.accumulate(delegate.size());
+        if (delegate instanceof SimpleArrayDeque) {
+            long seen = ((SimpleArrayDeque<T>) delegate).resizeCount();
+            if (seen != seenResizes) {
+                resizes.add(seen - seenResizes);
+                seenResizes = seen;
+            }
+        }
+    }
+
+    /**
+     * Returns the start time of the operation about to run if it is sampled.
+     *
+     * @return System.nanoTime() if the operation is sampled, otherwise -1
+     * time complexity O(1), memory complexity O(1)
+     */
+    private long startSample() {
+        if (latencySampleInterval == 0 || --untilSample > 0) {
+            return -1;
+        }
+        untilSample = latencySampleInterval;
+        return System.nanoTime();
+    }
+
+    /**
+     * Records the latency of a sampled operation in its histogram.
+     *
+     * @param operation the operation that has run
+     * @param start value returned by startSample()
+     * time complexity O(1), memory complexity O(1)
+     */
+    private void endSample(Operation operation, long start) {
+        if (start < 0) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        int bucket = (elapsed <= 0) ? 0 : 63 - Long.numberOfLeadingZeros(elapsed);
+        latencies.incrementAndGet(operation.ordinal() * BUCKETS + bucket);
+    }
+
+    /**
+     * An immutable copy of the metrics of an InstrumentedDeque.
+     */
+    public static final class Snapshot {
+        private final int size;
+        private final long highWaterMark;
+        private final long[] counts;
+        private final long emptyPops;
+        private final long rejectedPushes;
+        private final long resizes;
+        private final long[] latencies;
+
+        private Snapshot(int size, long highWaterMark, long[] counts, long emptyPops,
+                         long rejectedPushes, long resizes, long[] latencies) {
+            this.size = size;
+            this.highWaterMark = highWaterMark;
+            this.counts = counts;
+            this.emptyPops = emptyPops;
+            this.rejectedPushes = rejectedPushes;
+            this.resizes = resizes;
+            this.latencies = latencies;
+        }
+
+        /**
+         * @return size of the deque when the snapshot was taken
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @return the largest size the deque had reached
+         */
+        public long highWaterMark() {
+            return highWaterMark;
+        }
+
+        /**
+         * @param operation an operation
+         * @return number of successful runs of the operation
+         */
+        public long count(Operation operation) {
+            return counts[operation.ordinal()];
+        }
+
+        /**
+         * @return number of pops and peeks that found the deque empty
+         */
+        public long emptyPops() {
+            return emptyPops;
+        }
+
+        /**
+         * @return number of pushes rejected because the deque was full
+         */
+        public long rejectedPushes() {
+            return rejectedPushes;
+        }
+
+        /**
+         * @return number of times the underlying array had been grown
+         */
+        public long resizes() {
+            return resizes;
+        }
+
+        /**
+         * Returns the latency histogram of an operation. Bucket i counts the
+         * sampled runs that took between 2^i and 2^(i+1) nanoseconds.
+         *
+         * @param operation an operation
+         * @return a copy of the histogram, empty if latency sampling is disabled
+         */
+        public long[] latencyHistogram(Operation operation) {
+            long[] histogram = new long[latencies.length == 0 ? 0 : BUCKETS];
+            if (histogram.length > 0) {
+                System.arraycopy(latencies, operation.ordinal() * BUCKETS, histogram, 0,
+                        BUCKETS);
+            }
+            return histogram;
+        }
+
+        /**
+         * Returns an upper bound of the given percentile of the sampled latency
+         * over all operations.
+         *
+         * @param percentile a fraction between 0 and 1
+         * @return the upper bound of the bucket holding the percentile in
+         *         nanoseconds, 0 if nothing was sampled
+         */
+        public long latencyPercentileNanos(double percentile) {
+            long[] merged = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < latencies.length; ++i) {
+                merged[i % BUCKETS] += latencies[i];
+                total += latencies[i];
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(percentile * total);
+            long seen = 0;
+            for (int bucket = 0; bucket < BUCKETS; ++bucket) {
+                seen += merged[bucket];
+                if (seen >= rank && merged[bucket] > 0) {
+                    return (bucket >= 62) ? Long.MAX_VALUE : 1L << (bucket + 1);
+                }
+            }
+            return Long.MAX_VALUE;
+        }
+    }
+}
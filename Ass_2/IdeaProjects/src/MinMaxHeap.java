@@ -0,0 +1,264 @@
+import java.util.NoSuchElementException;
+
+/**
+ * A bounded double-ended priority queue, stored as a min-max heap in one array.
+ *
+ * It follows the SimpleDeque vocabulary: the left end is the smallest element
+ * and the right end is the largest one. Nodes on even levels are no greater
+ * than any of their descendants, nodes on odd levels are no smaller, so the
+ * minimum is the root and the maximum is one of its children.
+ *
+ * @param <T> Element stored inside this heap.
+ */
+public class MinMaxHeap<T extends Comparable<T>> {
+    // The array in which the heap is stored, the root is at index 0.
+    private final Object[] elements;
+    // number of elements currently stored
+    private int size = 0;
+
+    /**
+     * Constructs a new min-max heap with fixed capacity.
+     *
+     * @param capacity the capacity
+     * @throws IllegalArgumentException if capacity <= 0
+     */
+    public MinMaxHeap(int capacity) throws IllegalArgumentException {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException();
+        }
+        elements = new Object[capacity];
+    }
+
+    // time complexity O(1), memory complexity O(1)
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // time complexity O(1), memory complexity O(1)
+    public boolean isFull() {
+        return size == elements.length;
+    }
+
+    // time complexity O(1), memory complexity O(1)
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds an element to the heap.
+     *
+     * @param e Element to add
+     * @throws RuntimeException if the heap is already full
+     * time complexity O(log n), memory complexity O(1)
+     */
+    public void push(T e) throws RuntimeException {
+        if (isFull()) {
+            throw new RuntimeException();
+        }
+        elements[size] = e;
+        upheap(size++);
+    }
+
+    /**
+     * Returns the smallest element, but does not remove it.
+     *
+     * @return the smallest element
+     * @throws NoSuchElementException if the heap is empty
+     * time complexity O(1), memory complexity O(1)
+     */
+    public T peekLeft() throws NoSuchElementException {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return get(0);
+    }
+
+    /**
+     * Returns the largest element, but does not remove it.
+     *
+     * @return the largest element
+     * @throws NoSuchElementException if the heap is empty
+     * time complexity O(1), memory complexity O(1)
+     */
+    public T peekRight() throws NoSuchElementException {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return get(maxIndex());
+    }
+
+    /**
+     * Removes and returns the smallest element.
+     *
+     * @return the smallest element
+     * @throws NoSuchElementException if the heap is empty
+     * time complexity O(log n), memory complexity O(1)
+     */
+    public T popLeft() throws NoSuchElementException {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return removeAt(0);
+    }
+
+    /**
+     * Removes and returns the largest element.
+     *
+     * @return the largest element
+     * @throws NoSuchElementException if the heap is empty
+     * time complexity O(log n), memory complexity O(1)
+     */
+    public T popRight() throws NoSuchElementException {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return removeAt(maxIndex());
+    }
+
+    /**
+     * Returns the index of the largest element of a non-empty heap.
+     * time complexity O(1), memory complexity O(1)
+     */
+    private int maxIndex() {
+        if (size == 1) {
+            return 0;
+        }
+        if (size == 2) {
+            return 1;
+        }
+        return (less(1, 2)) ? 2 : 1;
+    }
+
+    /**
+     * Removes the element at the given index of the heap, replacing it with
+     * the last element and restoring the heap order below it.
+     *
+     * @param index index of a min node (0) or a max node (1 or 2)
+     * @return the removed element
+     * time complexity O(log n), memory complexity O(1)
+     */
+    private T removeAt(int index) {
+        T element = get(index);
+        elements[index] = elements[--size];
+        elements[size] = null;
+        if (index < size) {
+            downheap(index);
+        }
+        return element;
+    }
+
+    /**
+     * Moves the element at the given index up until the heap order holds.
+     * time complexity O(log n), memory complexity O(1)
+     */
+    private void upheap(int index) {
+        if (index == 0) {
+            return;
+        }
+        int parent = (index - 1) / 2;
+        boolean minLevel = isMinLevel(index);
+        // an element on the wrong side of its parent swaps over to the other
+        // kind of level first
+        if (minLevel ? less(parent, index) : less(index, parent)) {
+            swap(index, parent);
+            upheapGrandparents(parent, !minLevel);
+        } else {
+            upheapGrandparents(index, minLevel);
+        }
+    }
+
+    /**
+     * Moves the element at the given index up through its grandparents, which
+     * are on the same kind of level, until the heap order holds.
+     * time complexity O(log n), memory complexity O(1)
+     */
+    private void upheapGrandparents(int index, boolean minLevel) {
+        while (index > 2) {
+            int grandparent = ((index - 1) / 2 - 1) / 2;
+            if (minLevel ? less(index, grandparent) : less(grandparent, index)) {
+                swap(index, grandparent);
+                index = grandparent;
+            } else {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Moves the element at the given index down until the heap order holds.
+     * time complexity O(log n), memory complexity O(1)
+     */
+    private void downheap(int index) {
+        boolean minLevel = isMinLevel(index);
+        while (2 * index + 1 < size) {
+            // the extreme among children and grandchildren
+            int extreme = extremeDescendant(index, minLevel);
+            if (!(minLevel ? less(extreme, index) : less(index, extreme))) {
+                return;
+            }
+            swap(index, extreme);
+            if (extreme <= 2 * index + 2) {
+                // a child sits on the other kind of level, nothing lies below
+                // it that the moved element could violate
+                return;
+            }
+            int parent = (extreme - 1) / 2;
+            if (minLevel ? less(parent, extreme) : less(extreme, parent)) {
+                swap(extreme, parent);
+            }
+            index = extreme;
+        }
+    }
+
+    /**
+     * Returns the index of the smallest (on a min level) or largest (on a max
+     * level) element among the children and grandchildren of index.
+     * time complexity O(1), memory complexity O(1)
+     */
+    private int extremeDescendant(int index, boolean minLevel) {
+        int child = 2 * index + 1;
+        int extreme = child;
+        if (child + 1 < size && (minLevel ? less(child + 1, extreme)
+                : less(extreme, child + 1))) {
+            extreme = child + 1;
+        }
+        // the grandchildren occupy the four slots after 2 * child
+        int end = Math.min(2 * child + 5, size);
+        for (int candidate = 2 * child + 1; candidate < end; ++candidate) {
+            if (minLevel ? less(candidate, extreme) : less(extreme, candidate)) {
+                extreme = candidate;
+            }
+        }
+        return extreme;
+    }
+
+    /**
+     * Returns whether the given index lies on an even (min) level.
+     * time complexity O(1), memory complexity O(1)
+     */
+    private static boolean isMinLevel(int index) {
+        // level of index is floor(log2(index + 1))
+        return ((31 - Integer.numberOfLeadingZeros(index + 1)) & 1) == 0;
+    }
+
+    /**
+     * Returns whether the element at index i is smaller than the one at index j.
+     */
+    private boolean less(int i, int j) {
+        return get(i).compareTo(get(j)) < 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T get(int index) {
+        return (T) elements[index];
+    }
+
+    /**
+     * Swaps two elements of the heap array.
+     */
+    private void swap(int x, int y) {
+        Object temp = elements[x];
+        elements[x] = elements[y];
+        elements[y] = temp;
+    }
+}
@@ -0,0 +1,297 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.NoSuchElementException;
+
+/**
+ * A double-ended queue of fixed-size binary records, stored outside the Java
+ * heap in a ring of records inside a direct or memory-mapped ByteBuffer.
+ *
+ * Records are copied in from and out to caller-supplied buffers, so pushes and
+ * pops allocate nothing. The left/right semantics are the same as SimpleDeque.
+ */
+public class OffHeapRecordDeque {
+    // The ring storing the records, record i starts at byte i * recordSize.
+    private final ByteBuffer ring;
+    // A second view of the ring, used to bound the bytes copied per record.
+    private final ByteBuffer window;
+    // number of bytes per record
+    private final int recordSize;
+    // maximum number of records
+    private final int capacity;
+    // The index of the record at the head of the deque.
+    private int head = 0;
+    // number of records currently stored
+    private int size = 0;
+
+    /**
+     * Constructs a new deque of records stored in a direct ByteBuffer.
+     *
+     * @param recordSize number of bytes per record
+     * @param capacity maximum number of records
+     * @throws IllegalArgumentException if recordSize <= 0, capacity <= 0 or the
+     *         ring would be larger than Integer.MAX_VALUE bytes
+     */
+    public OffHeapRecordDeque(int recordSize, int capacity) throws IllegalArgumentException {
+        this(ByteBuffer.allocateDirect(ringBytes(recordSize, capacity)), recordSize, capacity);
+    }
+
+    /**
+     * Constructs a new deque of records over the given ring buffer.
+     *
+     * @param ring buffer of at least recordSize * capacity bytes
+     * @param recordSize number of bytes per record
+     * @param capacity maximum number of records
+     */
+    private OffHeapRecordDeque(ByteBuffer ring, int recordSize, int capacity) {
+        this.ring = ring;
+        this.window = ring.duplicate();
+        this.recordSize = recordSize;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Constructs a new deque of records stored in a memory-mapped file, so the
+     * backlog lives in the page cache rather than in process memory.
+     * The file is created if needed and grown to recordSize * capacity bytes.
+     * The deque always starts empty, whatever the file held before.
+     *
+     * @param file the file to map
+     * @param recordSize number of bytes per record
+     * @param capacity maximum number of records
+     * @return a new deque backed by the mapped file
+     * @throws IllegalArgumentException if recordSize <= 0, capacity <= 0 or the
+     *         ring would be larger than Integer.MAX_VALUE bytes
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    public static OffHeapRecordDeque mapped(Path file, int recordSize, int capacity)
+            throws IOException {
+        int bytes = ringBytes(recordSize, capacity);
+        // the mapping stays valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer ring = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+            return new OffHeapRecordDeque(ring, recordSize, capacity);
+        }
+    }
+
+    /**
+     * Returns the number of bytes needed for the ring.
+     *
+     * @param recordSize number of bytes per record
+     * @param capacity maximum number of records
+     * @return recordSize * capacity
+     * @throws IllegalArgumentException if either argument is <= 0 or the
+     *         product overflows an int
+     */
+    private static int ringBytes(int recordSize, int capacity) {
+        if (recordSize <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException();
+        }
+        long bytes = (long) recordSize * capacity;
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Deque is too big.");
+        }
+        return (int) bytes;
+    }
+
+    /**
+     * Flushes the records to the underlying file when in memory-mapped mode,
+     * does nothing otherwise.
+     * time complexity O(n), memory complexity O(1)
+     */
+    public void force() {
+        if (ring instanceof MappedByteBuffer) {
+            ((MappedByteBuffer) ring).force();
+        }
+    }
+
+    /**
+     * Returns the number of bytes per record.
+     * @return record size in bytes
+     */
+    public int recordSize() {
+        return recordSize;
+    }
+
+    /**
+     * Returns the maximum number of records this deque can hold.
+     * @return capacity in records
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    // time complexity O(1), memory complexity O(1)
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // time complexity O(1), memory complexity O(1)
+    public boolean isFull() {
+        return size == capacity;
+    }
+
+    // time complexity O(1), memory complexity O(1)
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Pushes a record to the left of the deque. The record is read from the next
+     * recordSize bytes of src, whose position is advanced past them.
+     *
+     * @param src buffer holding the record
+     * @throws IllegalArgumentException if src has fewer than recordSize bytes remaining
+     * @throws RuntimeException if the deque is already full
+     * time complexity O(1), memory complexity O(1)
+     */
+    public void pushLeft(ByteBuffer src) throws RuntimeException {
+        checkPush(src);
+        head = (head == 0) ? capacity - 1 : head - 1;
+        storeRecord(src, head);
+        size++;
+    }
+
+    /**
+     * Pushes a record to the right of the deque. The record is read from the next
+     * recordSize bytes of src, whose position is advanced past them.
+     *
+     * @param src buffer holding the record
+     * @throws IllegalArgumentException if src has fewer than recordSize bytes remaining
+     * @throws RuntimeException if the deque is already full
+     * time complexity O(1), memory complexity O(1)
+     */
+    public void pushRight(ByteBuffer src) throws RuntimeException {
+        checkPush(src);
+        storeRecord(src, slot(size));
+        size++;
+    }
+
+    /**
+     * Copies the leftmost record into dst, but does not remove it.
+     *
+     * @param dst buffer receiving the record, its position is advanced by recordSize
+     * @throws IllegalArgumentException if dst has fewer than recordSize bytes remaining
+     * @throws NoSuchElementException if the deque is empty
+     * time complexity O(1), memory complexity O(1)
+     */
+    public void peekLeft(ByteBuffer dst) throws NoSuchElementException {
+        checkPop(dst);
+        loadRecord(dst, head);
+    }
+
+    /**
+     * Copies the rightmost record into dst, but does not remove it.
+     *
+     * @param dst buffer receiving the record, its position is advanced by recordSize
+     * @throws IllegalArgumentException if dst has fewer than recordSize bytes remaining
+     * @throws NoSuchElementException if the deque is empty
+     * time complexity O(1), memory complexity O(1)
+     */
+    public void peekRight(ByteBuffer dst) throws NoSuchElementException {
+        checkPop(dst);
+        loadRecord(dst, slot(size - 1));
+    }
+
+    /**
+     * Removes the leftmost record and copies it into dst.
+     *
+     * @param dst buffer receiving the record, its position is advanced by recordSize
+     * @throws IllegalArgumentException if dst has fewer than recordSize bytes remaining
+     * @throws NoSuchElementException if the deque is empty
+     * time complexity O(1), memory complexity O(1)
+     */
+    public void popLeft(ByteBuffer dst) throws NoSuchElementException {
+        checkPop(dst);
+        loadRecord(dst, head);
+        head = slot(1);
+        size--;
+    }
+
+    /**
+     * Removes the rightmost record and copies it into dst.
+     *
+     * @param dst buffer receiving the record, its position is advanced by recordSize
+     * @throws IllegalArgumentException if dst has fewer than recordSize bytes remaining
+     * @throws NoSuchElementException if the deque is empty
+     * time complexity O(1), memory complexity O(1)
+     */
+    public void popRight(ByteBuffer dst) throws NoSuchElementException {
+        checkPop(dst);
+        loadRecord(dst, slot(size - 1));
+        size--;
+    }
+
+    /**
+     * Returns the ring slot of the record at the given offset from the head.
+     *
+     * @param offset distance from the head, 0 <= offset <= capacity
+     * @return the ring slot
+     * time complexity O(1), memory complexity O(1)
+     */
+    private int slot(int offset) {
+        int index = head + offset;
+        return (index >= capacity) ? index - capacity : index;
+    }
+
+    /**
+     * Checks a push can go ahead.
+     *
+     * @param src buffer holding the record
+     */
+    private void checkPush(ByteBuffer src) {
+        if (src.remaining() < recordSize) {
+            throw new IllegalArgumentException();
+        }
+        if (isFull()) {
+            throw new RuntimeException();
+        }
+    }
+
+    /**
+     * Checks a peek or pop can go ahead.
+     *
+     * @param dst buffer receiving the record
+     */
+    private void checkPop(ByteBuffer dst) {
+        if (dst.remaining() < recordSize) {
+            throw new IllegalArgumentException();
+        }
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+    }
+
+    /**
+     * Copies the next record of src into the given ring slot.
+     *
+     * @param src buffer holding the record
+     * @param slot the ring slot to write
+     * time complexity O(1), memory complexity O(1)
+     */
+    private void storeRecord(ByteBuffer src, int slot) {
+        int start = slot * recordSize;
+        int srcLimit = src.limit();
+        src.limit(src.position() + recordSize);
+        window.limit(start + recordSize).position(start);
+        window.put(src);
+        src.limit(srcLimit);
+    }
+
+    /**
+     * Copies the record in the given ring slot into dst.
+     *
+     * @param dst buffer receiving the record
+     * @param slot the ring slot to read
+     * time complexity O(1), memory complexity O(1)
+     */
+    private void loadRecord(ByteBuffer dst, int slot) {
+        int start = slot * recordSize;
+        window.limit(start + recordSize).position(start);
+        dst.put(window);
+    }
+}
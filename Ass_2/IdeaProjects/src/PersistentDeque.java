@@ -0,0 +1,347 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
+
+/**
+ * An immutable double-ended queue. Pushes and pops leave this deque untouched
+ * and return a new version which shares all unchanged cells with it, so keeping
+ * older versions around costs nothing and they can be read from any thread
+ * without locking.
+ *
+ * This is Okasaki's banker's deque. The elements are kept in two lazily
+ * evaluated lists: front holds the left part from left to right, rear holds the
+ * right part from right to left. Neither part is allowed to grow beyond
+ * BALANCE times the other plus one; when one would, both are rebuilt to half
+ * the elements each. The rebuild only creates suspensions, which are run as
+ * pops reach them and then remembered, so a rebuild shared by many versions is
+ * paid for once. Every operation is therefore amortised O(1) however the
+ * versions are used, including popping the same version over and over.
+ *
+ * @param <T> Element stored inside this deque.
+ */
+public final class PersistentDeque<T> {
+    // maximum ratio between the sizes of the two parts
+    private static final int BALANCE = 3;
+
+    /**
+     * An immutable cell of a lazy list.
+     */
+    private static final class Cell<T> {
+        // element of current cell
+        final T item;
+        // the rest of the list
+        final Lazy<T> next;
+
+        Cell(T item, Lazy<T> next) {
+            this.item = item;
+            this.next = next;
+        }
+    }
+
+    /**
+     * A lazily evaluated list: its first cell is computed when first forced,
+     * and remembered for every later force. Threads forcing the same list at
+     * once may both compute the cell, but get equal results, so no lock is
+     * needed.
+     */
+    private static final class Lazy<T> {
+        private static final Lazy<Object> NIL = new Lazy<>((Cell<Object>) null);
+
+        // computes the first cell, null once it has been computed
+        private volatile Supplier<Cell<T>> suspension;
+        // the first cell, null for the empty list, valid once suspension is null
+        private Cell<T> cell;
+
+        Lazy(Cell<T> cell) {
+            this.cell = cell;
+        }
+
+        Lazy(Supplier<Cell<T>> suspension) {
+            this.suspension = suspension;
+        }
+
+        @SuppressWarnings("unchecked")
+        static <T> Lazy<T> nil() {
+            return (Lazy<T>) NIL;
+        }
+
+        /**
+         * Returns the first cell, computing it if needed.
+         *
+         * @return the first cell, or null if the list is empty
+         */
+        Cell<T> force() {
+            Supplier<Cell<T>> pending = suspension;
+            if (pending != null) {
+                cell = pending.get();
+                // publishes cell, and drops what the suspension holds on to
+                suspension = null;
+            }
+            return cell;
+        }
+    }
+
+    private static final PersistentDeque<Object> EMPTY =
+            new PersistentDeque<>(Lazy.nil(), 0, Lazy.nil(), 0);
+
+    // left part of the deque, leftmost element first
+    private final Lazy<T> front;
+    private final int frontSize;
+    // right part of the deque, rightmost element first
+    private final Lazy<T> rear;
+    private final int rearSize;
+
+    private PersistentDeque(Lazy<T> front, int frontSize, Lazy<T> rear, int rearSize) {
+        this.front = front;
+        this.frontSize = frontSize;
+        this.rear = rear;
+        this.rearSize = rearSize;
+    }
+
+    /**
+     * Returns the empty deque.
+     *
+     * @param <T> Element stored inside the deque.
+     * @return the empty deque
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> PersistentDeque<T> empty() {
+        return (PersistentDeque<T>) EMPTY;
+    }
+
+    // time complexity O(1), memory complexity O(1)
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // time complexity O(1), memory complexity O(1)
+    public int size() {
+        return frontSize + rearSize;
+    }
+
+    /**
+     * Returns a new deque with the given element added to the left.
+     *
+     * @param e Element to push
+     * @return the new version
+     * time complexity O(1) amortised, memory complexity O(1)
+     */
+    public PersistentDeque<T> pushLeft(T e) {
+        return balance(new Lazy<>(new Cell<>(e, front)), frontSize + 1, rear, rearSize);
+    }
+
+    /**
+     * Returns a new deque with the given element added to the right.
+     *
+     * @param e Element to push
+     * @return the new version
+     * time complexity O(1) amortised, memory complexity O(1)
+     */
+    public PersistentDeque<T> pushRight(T e) {
+        return balance(front, frontSize, new Lazy<>(new Cell<>(e, rear)), rearSize + 1);
+    }
+
+    /**
+     * Returns the element at the left of the deque.
+     *
+     * @return the leftmost element
+     * @throws NoSuchElementException if the deque is empty
+     * time complexity O(1) amortised, memory complexity O(1)
+     */
+    public T peekLeft() throws NoSuchElementException {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        // the balance only leaves front empty while rear holds one element
+        return (frontSize > 0) ? front.force().item : rear.force().item;
+    }
+
+    /**
+     * Returns the element at the right of the deque.
+     *
+     * @return the rightmost element
+     * @throws NoSuchElementException if the deque is empty
+     * time complexity O(1) amortised, memory complexity O(1)
+     */
+    public T peekRight() throws NoSuchElementException {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return (rearSize > 0) ? rear.force().item : front.force().item;
+    }
+
+    /**
+     * Returns a new deque without the element at the left of this deque.
+     *
+     * @return the new version
+     * @throws NoSuchElementException if the deque is empty
+     * time complexity O(1) amortised, memory complexity O(1)
+     */
+    public PersistentDeque<T> popLeft() throws NoSuchElementException {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        if (frontSize == 0) {
+            return empty();
+        }
+        return balance(front.force().next, frontSize - 1, rear, rearSize);
+    }
+
+    /**
+     * Returns a new deque without the element at the right of this deque.
+     *
+     * @return the new version
+     * @throws NoSuchElementException if the deque is empty
+     * time complexity O(1) amortised, memory complexity O(1)
+     */
+    public PersistentDeque<T> popRight() throws NoSuchElementException {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        if (rearSize == 0) {
+            return empty();
+        }
+        return balance(front, frontSize, rear.force().next, rearSize - 1);
+    }
+
+    /**
+     * Returns an iterator over the elements in left to right sequence.
+     * Creating it costs O(size of rear) to reverse the right part; hasNext()
+     * and next() then run in O(1) amortised.
+     *
+     * @return an iterator from leftmost to rightmost
+     */
+    public Iterator<T> iterator() {
+        return new CellIterator(front, rear, rearSize);
+    }
+
+    /**
+     * Returns an iterator over the elements in right to left sequence.
+     * Creating it costs O(size of front) to reverse the left part; hasNext()
+     * and next() then run in O(1) amortised.
+     *
+     * @return an iterator from rightmost to leftmost
+     */
+    public Iterator<T> reverseIterator() {
+        return new CellIterator(rear, front, frontSize);
+    }
+
+    /**
+     * Builds a deque from the given parts, rebuilding them to half the
+     * elements each when one has grown beyond BALANCE times the other plus one.
+     * The rebuilt parts are suspensions, evaluated later as they are popped.
+     *
+     * @return the balanced deque
+     * time complexity O(1), memory complexity O(1)
+     */
+    private static <T> PersistentDeque<T> balance(Lazy<T> front, int frontSize,
+                                                  Lazy<T> rear, int rearSize) {
+        int size = frontSize + rearSize;
+        if (frontSize > BALANCE * rearSize + 1) {
+            int keep = size / 2;
+            return new PersistentDeque<>(take(front, keep), keep,
+                    append(rear, reverseDrop(front, keep)), size - keep);
+        }
+        if (rearSize > BALANCE * frontSize + 1) {
+            int keep = size / 2;
+            return new PersistentDeque<>(append(front, reverseDrop(rear, keep)),
+                    size - keep, take(rear, keep), keep);
+        }
+        return new PersistentDeque<>(front, frontSize, rear, rearSize);
+    }
+
+    /**
+     * Returns the first count cells of list, one cell evaluated at a time.
+     *
+     * @requires list holds at least count cells
+     * time complexity O(1), then O(1) per cell forced
+     */
+    private static <T> Lazy<T> take(Lazy<T> list, int count) {
+        if (count == 0) {
+            return Lazy.nil();
+        }
+        return new Lazy<>(() -> {
+            Cell<T> cell = list.force();
+            return new Cell<>(cell.item, take(cell.next, count - 1));
+        });
+    }
+
+    /**
+     * Returns the cells of first followed by those of second, one cell
+     * evaluated at a time, sharing second.
+     *
+     * time complexity O(1), then O(1) per cell forced
+     */
+    private static <T> Lazy<T> append(Lazy<T> first, Lazy<T> second) {
+        return new Lazy<>(() -> {
+            Cell<T> cell = first.force();
+            if (cell == null) {
+                return second.force();
+            }
+            return new Cell<>(cell.item, append(cell.next, second));
+        });
+    }
+
+    /**
+     * Returns the cells of list after the first count, reversed. The whole
+     * list is evaluated when the result is first forced.
+     *
+     * time complexity O(1), then O(n) when forced
+     */
+    private static <T> Lazy<T> reverseDrop(Lazy<T> list, int count) {
+        return new Lazy<>(() -> {
+            Cell<T> cell = list.force();
+            for (int i = 0; i < count; ++i) {
+                cell = cell.next.force();
+            }
+            Cell<T> reversed = null;
+            for (; cell != null; cell = cell.next.force()) {
+                reversed = new Cell<>(cell.item, new Lazy<>(reversed));
+            }
+            return reversed;
+        });
+    }
+
+    /**
+     * An implementation class of Iterator.
+     * Walks the near list as it is, then the far list in reverse.
+     */
+    private class CellIterator implements Iterator<T> {
+        // the cell to be accessed in the near list
+        private Cell<T> cursor;
+        // elements of the far list, in the order they are returned
+        private final Object[] far;
+        // index of the next element of far to be returned
+        private int farIndex = 0;
+
+        CellIterator(Lazy<T> near, Lazy<T> farList, int farSize) {
+            cursor = near.force();
+            far = new Object[farSize];
+            Cell<T> cell = farList.force();
+            for (int i = farSize - 1; i >= 0; --i) {
+                far[i] = cell.item;
+                cell = cell.next.force();
+            }
+        }
+
+        @Override
+        // time complexity O(1) amortised, memory complexity O(1)
+        public boolean hasNext() {
+            return cursor != null || farIndex < far.length;
+        }
+
+        @Override
+        // time complexity O(1) amortised, memory complexity O(1)
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (cursor != null) {
+                T element = cursor.item;
+                cursor = cursor.next.force();
+                return element;
+            }
+            if (farIndex >= far.length)
+                throw new NoSuchElementException();
+            return (T) far[farIndex++];
+        }
+    }
+}
@@ -0,0 +1,319 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+public class ReversibleArrayDeque<T> implements SimpleDeque<T> {
+    // The array in which the elements of the deque are stored.
+    private Object[] elements;
+    // The index of the element at the physical head of the ring.
+    private int head;
+    // The index at which the next element would be added to the physical tail
+    // of the ring.
+    private int tail;
+    // maximum number of elements, -1 represents unlimited capacity
+    private int capacity = -1;
+    // logical orientation, true if left and right are swapped
+    private boolean reversed = false;
+    // The default minimum capacity of the ring
+    private static final int INITIAL_CAPACITY = 8;
+    // largest capacity whose ring length still fits in an int
+    private static final int MAX_CAPACITY = (1 << 30) - 1;
+
+    /**
+     * Constructs a new array based reversible deque with unlimited capacity.
+     */
+    public ReversibleArrayDeque() {
+        elements = new Object[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Constructs a new array based reversible deque with limited capacity.
+     *
+     * @param capacity the capacity
+     * @throws IllegalArgumentException if capacity <= 0 or capacity >= 2^30
+     */
+    public ReversibleArrayDeque(int capacity) throws IllegalArgumentException {
+        if (capacity <= 0 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException();
+        }
+        this.capacity = capacity;
+        elements = new Object[ringLength(capacity)];
+    }
+
+    /**
+     * Constructs a new array based reversible deque with limited capacity, and
+     * initially populates the deque with the elements of another SimpleDeque.
+     *
+     * @param capacity the capacity
+     * @param otherDeque the other deque to copy elements from. otherDeque should be left intact.
+     * @throws IllegalArgumentException if capacity <= 0, capacity >= 2^30 or size of
+     *                                  otherDeque is > capacity
+     */
+    public ReversibleArrayDeque(int capacity, SimpleDeque<? extends T> otherDeque)
+            throws IllegalArgumentException {
+        this(capacity);
+        if (otherDeque.size() > capacity) {
+            throw new IllegalArgumentException();
+        }
+        Iterator<? extends T> iterator = otherDeque.iterator();
+        while (iterator.hasNext()) {
+            elements[tail++] = iterator.next();
+        }
+        tail &= elements.length - 1;
+    }
+
+    /**
+     * Returns the smallest power of two strictly greater than the given
+     * capacity, so a full deque never makes head and tail collide.
+     *
+     * @param capacity the requested capacity
+     * @return length of the ring array
+     * @requires 0 < capacity <= MAX_CAPACITY
+     * time complexity O(1), memory complexity O(1)
+     */
+    private static int ringLength(int capacity) {
+        return Integer.highestOneBit(Math.max(capacity, INITIAL_CAPACITY - 1)) << 1;
+    }
+
+    /**
+     * Reverses the order of the elements in this deque.
+     * The ring is left untouched, only the orientation flag is flipped, which
+     * swaps the meaning of left and right for every subsequent operation.
+     * time complexity O(1), memory complexity O(1)
+     */
+    public void reverse() {
+        reversed = !reversed;
+    }
+
+    /**
+     * Doubles the capacity of the ring.  Call only when the ring is full,
+     * i.e., when head and tail have wrapped around to become equal.
+     * This is kept apart from SimpleArrayDeque's ring, which also tracks an
+     * element count, resize statistics and overflow policies that a ring
+     * whose ends swap on reverse() has no use for.
+     * time complexity O(n), memory complexity O(n)
+     */
+    private void doubleCapacity() {
+        assert head == tail;
+        int length = elements.length;
+        // number of elements to the right of head index
+        int numElements = length - head;
+        int newCapacity = length << 1;
+        if (newCapacity < 0)
+            throw new IllegalStateException("Deque is too big.");
+        Object[] newElements = new Object[newCapacity];
+        System.arraycopy(elements, head, newElements, 0, numElements);
+        System.arraycopy(elements, 0, newElements, numElements, head);
+        elements = newElements;
+        head = 0;
+        tail = length;
+    }
+
+    @Override
+    // time complexity O(1), memory complexity O(1)
+    public boolean isEmpty() {
+        return head == tail;
+    }
+
+    @Override
+    // time complexity O(1), memory complexity O(1)
+    public boolean isFull() {
+        if (capacity == -1) {
+            return false;
+        }
+        return size() >= capacity;
+    }
+
+    @Override
+    // time complexity O(1), memory complexity O(1)
+    public int size() {
+        return (tail - head) & (elements.length - 1);
+    }
+
+    @Override
+    // time complexity O(1) amortised, memory complexity O(1)
+    public void pushLeft(T e) throws RuntimeException {
+        if (isFull()) {
+            throw new RuntimeException();
+        }
+        if (reversed) {
+            addTail(e);
+        } else {
+            addHead(e);
+        }
+    }
+
+    @Override
+    // time complexity O(1) amortised, memory complexity O(1)
+    public void pushRight(T e) throws RuntimeException {
+        if (isFull()) {
+            throw new RuntimeException();
+        }
+        if (reversed) {
+            addHead(e);
+        } else {
+            addTail(e);
+        }
+    }
+
+    @Override
+    // time complexity O(1), memory complexity O(1)
+    public T peekLeft() throws NoSuchElementException {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return reversed ? elementAt(tail - 1) : elementAt(head);
+    }
+
+    @Override
+    // time complexity O(1), memory complexity O(1)
+    public T peekRight() throws NoSuchElementException {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return reversed ? elementAt(head) : elementAt(tail - 1);
+    }
+
+    @Override
+    // time complexity O(1), memory complexity O(1)
+    public T popLeft() throws NoSuchElementException {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return reversed ? removeTail() : removeHead();
+    }
+
+    @Override
+    // time complexity O(1), memory complexity O(1)
+    public T popRight() throws NoSuchElementException {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return reversed ? removeHead() : removeTail();
+    }
+
+    @Override
+    // time complexity O(1), memory complexity O(1)
+    public Iterator<T> iterator() {
+        return reversed ? new ReversingIterator() : new DequeIterator();
+    }
+
+    @Override
+    // time complexity O(1), memory complexity O(1)
+    public Iterator<T> reverseIterator() {
+        return reversed ? new DequeIterator() : new ReversingIterator();
+    }
+
+    /**
+     * Returns the element stored at the given ring index, after masking.
+     *
+     * @param index a ring index, may be out of range by one slot
+     * @return the element stored at the masked index
+     * time complexity O(1), memory complexity O(1)
+     */
+    @SuppressWarnings("unchecked")
+    private T elementAt(int index) {
+        return (T)elements[index & (elements.length - 1)];
+    }
+
+    /**
+     * Stores the given element in front of the physical head of the ring.
+     * @param e the element to be stored
+     * time complexity O(1) amortised, memory complexity O(1)
+     */
+    private void addHead(T e) {
+        elements[head = (head - 1) & (elements.length - 1)] = e;
+        if (head == tail) {
+            doubleCapacity();
+        }
+    }
+
+    /**
+     * Stores the given element behind the physical tail of the ring.
+     * @param e the element to be stored
+     * time complexity O(1) amortised, memory complexity O(1)
+     */
+    private void addTail(T e) {
+        elements[tail] = e;
+        if ((tail = (tail + 1) & (elements.length - 1)) == head) {
+            doubleCapacity();
+        }
+    }
+
+    /**
+     * Removes and returns the element at the physical head of the ring.
+     * @return the removed element
+     * time complexity O(1), memory complexity O(1)
+     */
+    private T removeHead() {
+        T element = elementAt(head);
+        elements[head] = null;
+        head = (head + 1) & (elements.length - 1);
+        return element;
+    }
+
+    /**
+     * Removes and returns the element at the physical tail of the ring.
+     * @return the removed element
+     * time complexity O(1), memory complexity O(1)
+     */
+    private T removeTail() {
+        int newTail = (tail - 1) & (elements.length - 1);
+        T element = elementAt(newTail);
+        elements[newTail] = null;
+        tail = newTail;
+        return element;
+    }
+
+    /**
+     * An implementation class of Iterator.
+     * Traverses the ring from its physical head to its physical tail.
+     */
+    private class DequeIterator implements Iterator<T> {
+        // index of element to be returned
+        private int cursor = head;
+        // tail index for checking whether the iterator has reached the end
+        private final int fence = tail;
+
+        @Override
+        // time complexity O(1), memory complexity O(1)
+        public boolean hasNext() {
+            return cursor != fence;
+        }
+
+        @Override
+        // time complexity O(1), memory complexity O(1)
+        public T next() {
+            if (cursor == fence)
+                throw new NoSuchElementException();
+            T element = elementAt(cursor);
+            cursor = (cursor + 1) & (elements.length - 1);
+            return element;
+        }
+    }
+
+    /**
+     * An implementation class of Iterator.
+     * Traverses the ring from its physical tail to its physical head.
+     */
+    private class ReversingIterator implements Iterator<T> {
+        // index after the element to be returned
+        private int cursor = tail;
+        // head index for checking whether the iterator has reached the end
+        private final int fence = head;
+
+        @Override
+        // time complexity O(1), memory complexity O(1)
+        public boolean hasNext() {
+            return cursor != fence;
+        }
+
+        @Override
+        // time complexity O(1), memory complexity O(1)
+        public T next() {
+            if (cursor == fence)
+                throw new NoSuchElementException();
+            cursor = (cursor - 1) & (elements.length - 1);
+            return elementAt(cursor);
+        }
+    }
+}
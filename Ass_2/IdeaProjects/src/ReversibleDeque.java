@@ -10,6 +10,8 @@ public class ReversibleDeque<T> implements SimpleDeque<T> {
     private Node<T> first = null;
     // pointer to last node
     private Node<T> last = null;
+    // logical orientation, true if left and right are swapped
+    private boolean reversed = false;
 
     /**
      * Constructs a new reversible deque, using the given data deque to store
@@ -22,23 +24,14 @@ public class ReversibleDeque<T> implements SimpleDeque<T> {
         addAll(data);
     }
 
-    // time complexity O(n), memory complexity O(1)
+    /**
+     * Reverses the order of the elements in this deque.
+     * The nodes are left untouched, only the orientation flag is flipped, which
+     * swaps the meaning of left and right for every subsequent operation.
+     * time complexity O(1), memory complexity O(1)
+     */
     public void reverse() {
-        Node<T> temp = null;
-        Node<T> current = first;
-        last = first; // allocates the pointer last to beginning of the deque
-        while (current != null) {
-            //swaps prev and next pointer for current node
-            temp = current.prev;
-            current.prev = current.next;
-            current.next = temp;
-            // move to the next node
-            current = current.prev;
-        }
-        // allocates the pointer first to ending of the deque
-        if (temp != null) {
-            first = temp.prev;
-        }
+        reversed = !reversed;
     }
 
     @Override
@@ -68,15 +61,11 @@ public class ReversibleDeque<T> implements SimpleDeque<T> {
         if (isFull()) {
             throw new RuntimeException();
         }
-        final Node<T> secondNode = first;
-        final Node<T> newNode = new Node<T>(null, e, secondNode);
-        first = newNode;
-        if (secondNode == null) {
-            last = newNode;
+        if (reversed) {
+            linkLast(e);
         } else {
-            secondNode.prev = newNode;
+            linkFirst(e);
         }
-        size++;
     }
 
     @Override
@@ -85,15 +74,11 @@ public class ReversibleDeque<T> implements SimpleDeque<T> {
         if (isFull()) {
             throw new RuntimeException();
         }
-        final Node<T> secondLast = last;
-        final Node<T> newNode = new Node<>(secondLast, e, null);
-        last = newNode;
-        if (secondLast == null) {
-            first = newNode;
+        if (reversed) {
+            linkFirst(e);
         } else {
-            secondLast.next = newNode;
+            linkLast(e);
         }
-        size++;
     }
 
     @Override
@@ -102,7 +87,7 @@ public class ReversibleDeque<T> implements SimpleDeque<T> {
         if (isEmpty()) {
             throw new NoSuchElementException();
         }
-        final Node<T> firstNode = first;
+        final Node<T> firstNode = reversed ? last : first;
         return (firstNode == null) ? null : firstNode.item;
     }
 
@@ -112,7 +97,7 @@ public class ReversibleDeque<T> implements SimpleDeque<T> {
         if (isEmpty()) {
             throw new NoSuchElementException();
         }
-        final Node<T> lastNode = last;
+        final Node<T> lastNode = reversed ? first : last;
         return (lastNode == null) ? null : lastNode.item;
     }
 
@@ -122,8 +107,7 @@ public class ReversibleDeque<T> implements SimpleDeque<T> {
         if (isEmpty()) {
             throw new NoSuchElementException();
         }
-        final Node<T> firstNode = first;
-        return unlinkFirst(firstNode);
+        return reversed ? unlinkLast(last) : unlinkFirst(first);
     }
 
     @Override
@@ -132,20 +116,19 @@ public class ReversibleDeque<T> implements SimpleDeque<T> {
         if (isEmpty()) {
             throw new NoSuchElementException();
         }
-        final Node<T> lastNode = last;
-        return unlinkLast(lastNode);
+        return reversed ? unlinkFirst(first) : unlinkLast(last);
     }
 
     @Override
     // time complexity O(1), memory complexity O(1)
     public Iterator<T> iterator() {
-        return new LinkedIterator(0);
+        return reversed ? new ReversingIterator() : new LinkedIterator(0);
     }
 
     @Override
     // time complexity O(1), memory complexity O(1)
     public Iterator<T> reverseIterator() {
-        return new ReversingIterator();
+        return reversed ? new LinkedIterator(0) : new ReversingIterator();
     }
 
     /**
@@ -312,6 +295,40 @@ public class ReversibleDeque<T> implements SimpleDeque<T> {
         }
     }
 
+    /**
+     * Links the given element as the first node of the underlying list.
+     * @param e the element to be linked
+     * time complexity O(1), memory complexity O(1)
+     */
+    private void linkFirst(T e) {
+        final Node<T> secondNode = first;
+        final Node<T> newNode = new Node<T>(null, e, secondNode);
+        first = newNode;
+        if (secondNode == null) {
+            last = newNode;
+        } else {
+            secondNode.prev = newNode;
+        }
+        size++;
+    }
+
+    /**
+     * Links the given element as the last node of the underlying list.
+     * @param e the element to be linked
+     * time complexity O(1), memory complexity O(1)
+     */
+    private void linkLast(T e) {
+        final Node<T> secondLast = last;
+        final Node<T> newNode = new Node<>(secondLast, e, null);
+        last = newNode;
+        if (secondLast == null) {
+            first = newNode;
+        } else {
+            secondLast.next = newNode;
+        }
+        size++;
+    }
+
     /**
      * Unlinks non-null first node of deque, and returns its element.
      * @param firstNode the first node of deque
@@ -1,7 +1,23 @@
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 
 public class SimpleArrayDeque<T> implements SimpleDeque<T> {
+    /**
+     * What a push does when the deque already holds capacity elements.
+     */
+    public enum OverflowPolicy {
+        // the push throws a RuntimeException and the deque is unchanged
+        REJECT,
+        // the element at the opposite end is dropped to make room, i.e. the
+        // leftmost for pushRight and the rightmost for pushLeft
+        OVERWRITE_OLDEST,
+        // the pushed element is silently discarded
+        DROP_NEWEST
+    }
+
     // The array in which the elements of the deque are stored.
     private Object[] elements;
     // The index of the element at the head of the deque, default value is 0.
@@ -9,11 +25,21 @@ public class SimpleArrayDeque<T> implements SimpleDeque<T> {
     // The index at which the next element would be added to the tail of deque,
     // default value of tail is 0.
     private int tail;
+    // number of elements stored, tells a full ring from an empty one
+    private int count = 0;
+    // maximum number of elements stored
+    private final int capacity;
+    // what a push does once the deque is full
+    private final OverflowPolicy policy;
     // The default minimum capacity of the deque
     private static final int INITIAL_CAPACITY = 8;
+    // number of times the elements array has been grown
+    private long resizes = 0;
 
     /**
-     * Constructs a new array based deque with limited capacity.
+     * Constructs a new array based deque with limited capacity. The array
+     * starts small and grows on demand up to the capacity, and pushes to a
+     * full deque are rejected.
      * 
      * @param capacity the capacity
      * @throws IllegalArgumentException if capacity <= 0
@@ -22,9 +48,31 @@ public class SimpleArrayDeque<T> implements SimpleDeque<T> {
         if (capacity <= 0) {
             throw new IllegalArgumentException();
         }
+        this.capacity = capacity;
+        this.policy = OverflowPolicy.REJECT;
         elements = new Object[INITIAL_CAPACITY];
     }
 
+    /**
+     * Constructs a new array based deque with fixed capacity, e.g. for use as
+     * a bounded circular log. The whole ring is allocated up front and never
+     * resized, so pushes never allocate.
+     *
+     * @param capacity the capacity, a power of two
+     * @param policy what a push does once the deque is full
+     * @throws IllegalArgumentException if capacity <= 0 or is not a power of two
+     * @requires policy != null
+     */
+    public SimpleArrayDeque(int capacity, OverflowPolicy policy)
+            throws IllegalArgumentException {
+        if (capacity <= 0 || (capacity & (capacity - 1)) != 0) {
+            throw new IllegalArgumentException();
+        }
+        this.capacity = capacity;
+        this.policy = policy;
+        elements = new Object[capacity];
+    }
+
     /**
      * Constructs a new array based deque with limited capacity, and initially populates the deque
      * with the elements of another SimpleDeque.
@@ -39,10 +87,18 @@ public class SimpleArrayDeque<T> implements SimpleDeque<T> {
         if (capacity <= 0 || dequeSize > capacity) {
             throw new IllegalArgumentException();
         }
-        elements = new Object[capacity];
+        this.capacity = capacity;
+        this.policy = OverflowPolicy.REJECT;
+        // the ring length must be a power of two for the index masking
+        int length = INITIAL_CAPACITY;
+        while (length < dequeSize) {
+            length <<= 1;
+        }
+        elements = new Object[length];
         copyElements(otherDeque);
         head = 0;
-        tail = dequeSize & (capacity - 1);
+        tail = dequeSize & (length - 1);
+        count = dequeSize;
     }
 
     /**
@@ -61,8 +117,8 @@ public class SimpleArrayDeque<T> implements SimpleDeque<T> {
     }
 
     /**
-     * Doubles the capacity of this deque.  Call only when full, i.e.,
-     * when head and tail have wrapped around to become equal.
+     * Doubles the length of the elements array.  Call only when every slot
+     * is in use, i.e., when head and tail have wrapped around to become equal.
      * time complexity O(n), memory complexity O(1)
      */
     private void doubleCapacity() {
@@ -78,52 +134,85 @@ public class SimpleArrayDeque<T> implements SimpleDeque<T> {
         System.arraycopy(elements, head, newElements, 0, numElements);
         System.arraycopy(elements, 0, newElements, numElements, head);
         elements = newElements;
+        resizes++;
         head = 0;
         tail = length;
     }
 
+    /**
+     * Returns the number of times the elements array has been grown so far.
+     *
+     * @return Number of resizes.
+     */
+    public long resizeCount() {
+        return resizes;
+    }
+
     @Override
     // time complexity O(1), memory complexity O(1)
     public boolean isEmpty() {
-        return head == tail;
+        return count == 0;
     }
 
     @Override
     // time complexity O(1), memory complexity O(1)
     public boolean isFull() {
-        return (head == tail) && (elements[0] != null);
+        return count >= capacity;
     }
 
     @Override
     // time complexity O(1), memory complexity O(1)
     public int size() {
-        return (tail - head) & (elements.length - 1);
+        return count;
+    }
+
+    /**
+     * Returns what a push does once the deque is full.
+     *
+     * @return the overflow policy
+     */
+    public OverflowPolicy overflowPolicy() {
+        return policy;
     }
 
     @Override
-    // time complexity O(1), memory complexity O(1)
+    // time complexity O(1) amortised, memory complexity O(1) amortised
     public void pushLeft(T e) throws RuntimeException {
         if (isFull()) {
-            throw new RuntimeException();
+            if (policy == OverflowPolicy.REJECT) {
+                throw new RuntimeException();
+            }
+            if (policy == OverflowPolicy.DROP_NEWEST) {
+                return;
+            }
+            popRight();
         }
-        // head index moves left 1 space, then mod
-        elements[head = (head - 1) & (elements.length - 1)] = e;
-        if (head == tail) {
+        if (count == elements.length) {
             doubleCapacity();
         }
+        // head index moves left 1 space, then mod
+        elements[head = (head - 1) & (elements.length - 1)] = e;
+        count++;
     }
 
     @Override
-    // time complexity O(1), memory complexity O(1)
+    // time complexity O(1) amortised, memory complexity O(1) amortised
     public void pushRight(T e) throws RuntimeException {
         if (isFull()) {
-            throw new RuntimeException();
+            if (policy == OverflowPolicy.REJECT) {
+                throw new RuntimeException();
+            }
+            if (policy == OverflowPolicy.DROP_NEWEST) {
+                return;
+            }
+            popLeft();
         }
-        elements[tail] = e;
-        tail = (tail + 1) & (elements.length - 1);
-        if ((tail = (tail + 1) & (elements.length - 1)) == head) {
+        if (count == elements.length) {
             doubleCapacity();
         }
+        elements[tail] = e;
+        tail = (tail + 1) & (elements.length - 1);
+        count++;
     }
 
     @Override
@@ -156,6 +245,7 @@ public class SimpleArrayDeque<T> implements SimpleDeque<T> {
         T element = (T)elements[head];
         elements[head] = null;
         head = (head + 1) & (elements.length - 1);
+        count--;
         return element;
     }
 
@@ -170,9 +260,196 @@ public class SimpleArrayDeque<T> implements SimpleDeque<T> {
         T element = (T)elements[newTail];
         elements[newTail] = null;
         tail = newTail;
+        count--;
         return element;
     }
     
+    /**
+     * Grows the array so that it can hold extra more elements.
+     *
+     * @param extra number of elements about to be added
+     * time complexity O(n), memory complexity O(n)
+     */
+    private void ensureRoom(int extra) {
+        int required = count + extra;
+        int length = elements.length;
+        if (required <= length) {
+            return;
+        }
+        int newCapacity = length;
+        while (newCapacity < required) {
+            newCapacity <<= 1;
+            if (newCapacity <= 0)
+                throw new IllegalStateException("Deque is too big.");
+        }
+        int numElements = count;
+        Object[] newElements = new Object[newCapacity];
+        copyOut(newElements, 0, head, numElements);
+        elements = newElements;
+        resizes++;
+        head = 0;
+        tail = numElements;
+    }
+
+    /**
+     * Copies count elements of the ring starting at ring index from into dst,
+     * as at most two contiguous segments.
+     *
+     * @param dst destination array
+     * @param off index in dst to copy to
+     * @param from ring index of the first element to copy
+     * @param count number of elements to copy
+     * time complexity O(count), memory complexity O(1)
+     */
+    private void copyOut(Object[] dst, int off, int from, int count) {
+        int first = Math.min(count, elements.length - from);
+        System.arraycopy(elements, from, dst, off, first);
+        System.arraycopy(elements, 0, dst, off + first, count - first);
+    }
+
+    /**
+     * Copies count elements of src into the ring starting at ring index to,
+     * as at most two contiguous segments.
+     *
+     * @param src source array
+     * @param off index in src to copy from
+     * @param to ring index of the first slot to fill
+     * @param count number of elements to copy
+     * time complexity O(count), memory complexity O(1)
+     */
+    private void copyIn(Object[] src, int off, int to, int count) {
+        int first = Math.min(count, elements.length - to);
+        System.arraycopy(src, off, elements, to, first);
+        System.arraycopy(src, off + first, elements, 0, count - first);
+    }
+
+    /**
+     * Clears count slots of the ring starting at ring index from, so the
+     * removed elements can be garbage collected.
+     *
+     * @param from ring index of the first slot to clear
+     * @param count number of slots to clear
+     * time complexity O(count), memory complexity O(1)
+     */
+    private void clearSlots(int from, int count) {
+        int first = Math.min(count, elements.length - from);
+        Arrays.fill(elements, from, from + first, null);
+        Arrays.fill(elements, 0, count - first, null);
+    }
+
+    /**
+     * Returns how many of len elements about to be pushed fit in the deque
+     * under its overflow policy, as if they were pushed one at a time. With
+     * OVERWRITE_OLDEST, room is made for them by dropping elements from the
+     * end opposite to the push.
+     *
+     * @param len number of elements about to be pushed
+     * @param right true for a push to the right end
+     * @return number of elements to actually push
+     * @throws RuntimeException if the policy is REJECT and they do not all fit
+     * time complexity O(dropped elements), memory complexity O(1)
+     */
+    private int admit(int len, boolean right) throws RuntimeException {
+        int room = capacity - count;
+        if (len <= room) {
+            return len;
+        }
+        if (policy == OverflowPolicy.REJECT) {
+            throw new RuntimeException();
+        }
+        if (policy == OverflowPolicy.DROP_NEWEST) {
+            return room;
+        }
+        int accepted = Math.min(len, capacity);
+        int dropped = accepted - room;
+        if (right) {
+            clearSlots(head, dropped);
+            head = (head + dropped) & (elements.length - 1);
+        } else {
+            tail = (tail - dropped) & (elements.length - 1);
+            clearSlots(tail, dropped);
+        }
+        count -= dropped;
+        return accepted;
+    }
+
+    @Override
+    // time complexity O(len) amortised, memory complexity O(1)
+    public void pushAllRight(T[] src, int off, int len) throws RuntimeException {
+        checkRange(src.length, off, len);
+        int accepted = admit(len, true);
+        if (accepted == 0) {
+            return;
+        }
+        // dropping newest keeps the first elements, overwriting keeps the last
+        if (policy == OverflowPolicy.OVERWRITE_OLDEST) {
+            off += len - accepted;
+        }
+        ensureRoom(accepted);
+        copyIn(src, off, tail, accepted);
+        tail = (tail + accepted) & (elements.length - 1);
+        count += accepted;
+    }
+
+    @Override
+    // time complexity O(len) amortised, memory complexity O(1)
+    public void pushAllLeft(T[] src, int off, int len) throws RuntimeException {
+        checkRange(src.length, off, len);
+        int accepted = admit(len, false);
+        if (accepted == 0) {
+            return;
+        }
+        // src[off] is pushed last, so dropping newest keeps the last elements
+        // and overwriting keeps the first
+        if (policy == OverflowPolicy.DROP_NEWEST) {
+            off += len - accepted;
+        }
+        ensureRoom(accepted);
+        head = (head - accepted) & (elements.length - 1);
+        copyIn(src, off, head, accepted);
+        count += accepted;
+    }
+
+    @Override
+    // time complexity O(max), memory complexity O(1)
+    public int popLeft(T[] dst, int max) {
+        checkRange(dst.length, 0, max);
+        int popped = Math.min(max, count);
+        copyOut(dst, 0, head, popped);
+        clearSlots(head, popped);
+        head = (head + popped) & (elements.length - 1);
+        count -= popped;
+        return popped;
+    }
+
+    @Override
+    // time complexity O(max), memory complexity O(1)
+    public int popRight(T[] dst, int max) {
+        checkRange(dst.length, 0, max);
+        int popped = Math.min(max, count);
+        int newTail = (tail - popped) & (elements.length - 1);
+        copyOut(dst, 0, newTail, popped);
+        clearSlots(newTail, popped);
+        tail = newTail;
+        count -= popped;
+        return popped;
+    }
+
+    /**
+     * Checks that off and len describe a range inside an array of the given length.
+     *
+     * @param length length of the array
+     * @param off index of the first element of the range
+     * @param len number of elements in the range
+     * @throws IndexOutOfBoundsException if the range is not inside the array
+     * time complexity O(1), memory complexity O(1)
+     */
+    static void checkRange(int length, int off, int len) {
+        if (off < 0 || len < 0 || len > length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
     @Override
     // time complexity O(1), memory complexity O(1)
     public Iterator<T> iterator() {
@@ -185,6 +462,83 @@ public class SimpleArrayDeque<T> implements SimpleDeque<T> {
         return new ReversingIterator();
     }
 
+    @Override
+    // time complexity O(1), memory complexity O(1)
+    public Spliterator<T> spliterator() {
+        return new DequeSpliterator<>(elements, head, 0, size());
+    }
+
+    /**
+     * An implementation class of Spliterator.
+     * Covers a range of positions counted from the head of the ring, so a split
+     * only halves the range in O(1) and never copies elements.
+     */
+    private static final class DequeSpliterator<T> implements Spliterator<T> {
+        // the ring being traversed
+        private final Object[] elements;
+        // index of the head of the ring when the spliterator was created
+        private final int base;
+        // position, counted from base, of the next element to be returned
+        private int cursor;
+        // position, counted from base, after the last element to be returned
+        private final int fence;
+
+        DequeSpliterator(Object[] elements, int base, int cursor, int fence) {
+            this.elements = elements;
+            this.base = base;
+            this.cursor = cursor;
+            this.fence = fence;
+        }
+
+        @Override
+        // time complexity O(1), memory complexity O(1)
+        public Spliterator<T> trySplit() {
+            int middle = (cursor + fence) >>> 1;
+            if (middle <= cursor) {
+                return null;
+            }
+            Spliterator<T> prefix = new DequeSpliterator<>(elements, base, cursor, middle);
+            cursor = middle;
+            return prefix;
+        }
+
+        @Override
+        // time complexity O(1), memory complexity O(1)
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (cursor >= fence) {
+                return false;
+            }
+            @SuppressWarnings("unchecked")
+            T element = (T)elements[(base + cursor++) & (elements.length - 1)];
+            action.accept(element);
+            return true;
+        }
+
+        @Override
+        // time complexity O(n), memory complexity O(1)
+        public void forEachRemaining(Consumer<? super T> action) {
+            int mask = elements.length - 1;
+            for (int i = cursor; i < fence; ++i) {
+                @SuppressWarnings("unchecked")
+                T element = (T)elements[(base + i) & mask];
+                action.accept(element);
+            }
+            cursor = fence;
+        }
+
+        @Override
+        // time complexity O(1), memory complexity O(1)
+        public long estimateSize() {
+            return fence - cursor;
+        }
+
+        @Override
+        // time complexity O(1), memory complexity O(1)
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED;
+        }
+    }
+
     /**
      * An implementation class of Iterator.
      * Constructs an iterator for the deque in left to right sequence.
@@ -192,13 +546,13 @@ public class SimpleArrayDeque<T> implements SimpleDeque<T> {
     private class DequeIterator implements Iterator<T> {
         // index of element to be returned
         private int cursor = head;
-        // tail index for checking whether the iterator has reached the end
-        private int fence = tail;
+        // number of elements not yet returned, a full ring has head == tail
+        private int remaining = count;
 
         @Override
         // time complexity O(1), memory complexity O(1)
         public boolean hasNext() {
-            return cursor != fence;
+            return remaining > 0;
         }
 
         @Override
@@ -206,11 +560,12 @@ public class SimpleArrayDeque<T> implements SimpleDeque<T> {
         public T next() {
             // checks whether the iterator has reached the end or it's empty
             // hasNext() should be called first prior to calling this function
-            if (cursor == fence)
+            if (remaining == 0)
                 throw new NoSuchElementException();
             @SuppressWarnings("unchecked")
             T element = (T)elements[cursor];
             cursor = (cursor + 1) & (elements.length - 1);
+            remaining--;
             return element;
         }
     }
@@ -220,25 +575,26 @@ public class SimpleArrayDeque<T> implements SimpleDeque<T> {
      * Returns an iterator for the deque in right to left sequence.
      *
      * This class is nearly a mirror-image of DeqIterator, using tail instead
-     * of head for initial cursor, and head instead of tail for fence.
+     * of head for initial cursor.
      */
     private class ReversingIterator implements Iterator<T> {
-        // index of element to be returned
+        // index after the element to be returned
         private int cursor = tail;
-        // tail index for checking whether the iterator has reached the end
-        private int fence = head;
+        // number of elements not yet returned, a full ring has head == tail
+        private int remaining = count;
 
         @Override
         // time complexity O(1), memory complexity O(1)
         public boolean hasNext() {
-            return cursor != fence;
+            return remaining > 0;
         }
 
         @Override
         // time complexity O(1), memory complexity O(1)
         public T next() {
-            if (cursor == fence)
+            if (remaining == 0)
                 throw new NoSuchElementException();
+            remaining--;
             cursor = (cursor - 1) & (elements.length - 1);
             @SuppressWarnings("unchecked")
             T element = (T)elements[cursor];
@@ -1,5 +1,9 @@
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * A simple double-ended queue (deque).
@@ -98,6 +102,144 @@ public interface SimpleDeque<T> {
      * @returns an iterator over the elements in in order from rightmost to leftmost.
      */
     Iterator<T> reverseIterator();
-    
 
+    /**
+     * Returns a spliterator over the elements in left to right sequence.
+     *
+     * The default implementation wraps iterator() and splits by copying batches
+     * into arrays; implementations should override it with one that splits
+     * cheaply. As with the iterators, the deque must not change while the
+     * spliterator is being used.
+     *
+     * @return a spliterator over the elements from leftmost to rightmost
+     */
+    default Spliterator<T> spliterator() {
+        return Spliterators.spliterator(iterator(), size(), Spliterator.ORDERED);
+    }
+
+    /**
+     * Returns a sequential stream over the elements in left to right sequence.
+     *
+     * @return a sequential stream of the elements
+     */
+    default Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Returns a possibly parallel stream over the elements in left to right sequence.
+     *
+     * @return a possibly parallel stream of the elements
+     */
+    default Stream<T> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * Pushes len elements of src, starting at index off, to the right of the deque.
+     * Afterwards src[off + len - 1] is the rightmost element, and the elements keep
+     * their relative order.
+     *
+     * @param src array holding the elements to push
+     * @param off index of the first element to push
+     * @param len number of elements to push
+     * @throws IndexOutOfBoundsException if off and len do not describe a range of src
+     * @throws RuntimeException if the deque does not have room for len more
+     *         elements, in which case the deque is left unchanged
+     */
+    default void pushAllRight(T[] src, int off, int len) throws RuntimeException {
+        checkRange(src.length, off, len);
+        // the deque has no capacity to check against, so the elements already
+        // pushed are popped again if it runs out of room part way
+        int pushed = 0;
+        try {
+            for (; pushed < len; ++pushed) {
+                pushRight(src[off + pushed]);
+            }
+        } catch (RuntimeException e) {
+            for (; pushed > 0; --pushed) {
+                popRight();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Pushes len elements of src, starting at index off, to the left of the deque.
+     * Afterwards src[off] is the leftmost element, and the elements keep their
+     * relative order.
+     *
+     * @param src array holding the elements to push
+     * @param off index of the first element to push
+     * @param len number of elements to push
+     * @throws IndexOutOfBoundsException if off and len do not describe a range of src
+     * @throws RuntimeException if the deque does not have room for len more
+     *         elements, in which case the deque is left unchanged
+     */
+    default void pushAllLeft(T[] src, int off, int len) throws RuntimeException {
+        checkRange(src.length, off, len);
+        // as in pushAllRight, a partial push is undone
+        int pushed = 0;
+        try {
+            for (; pushed < len; ++pushed) {
+                pushLeft(src[off + len - 1 - pushed]);
+            }
+        } catch (RuntimeException e) {
+            for (; pushed > 0; --pushed) {
+                popLeft();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Removes up to max elements from the left of the deque, and stores them in
+     * dst in left to right sequence, starting at index 0.
+     *
+     * @param dst array receiving the removed elements
+     * @param max maximum number of elements to remove
+     * @return the number of elements removed, 0 if the deque is empty
+     * @throws IndexOutOfBoundsException if max < 0 or max > dst.length
+     */
+    default int popLeft(T[] dst, int max) {
+        checkRange(dst.length, 0, max);
+        int count = Math.min(max, size());
+        for (int i = 0; i < count; ++i) {
+            dst[i] = popLeft();
+        }
+        return count;
+    }
+
+    /**
+     * Removes up to max elements from the right of the deque, and stores them in
+     * dst in left to right sequence, starting at index 0, i.e. the former rightmost
+     * element ends up in dst[count - 1].
+     *
+     * @param dst array receiving the removed elements
+     * @param max maximum number of elements to remove
+     * @return the number of elements removed, 0 if the deque is empty
+     * @throws IndexOutOfBoundsException if max < 0 or max > dst.length
+     */
+    default int popRight(T[] dst, int max) {
+        checkRange(dst.length, 0, max);
+        int count = Math.min(max, size());
+        for (int i = count - 1; i >= 0; --i) {
+            dst[i] = popRight();
+        }
+        return count;
+    }
+
+    /**
+     * Checks that off and len describe a range inside an array of the given length.
+     *
+     * @param length length of the array
+     * @param off index of the first element of the range
+     * @param len number of elements in the range
+     * @throws IndexOutOfBoundsException if the range is not inside the array
+     */
+    private static void checkRange(int length, int off, int len) {
+        if (off < 0 || len < 0 || len > length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
 }
@@ -1,5 +1,8 @@
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
 
 public class SimpleLinkedDeque<T> implements SimpleDeque<T> {
     // total number of linked nodes
@@ -10,6 +13,12 @@ public class SimpleLinkedDeque<T> implements SimpleDeque<T> {
     private Node<T> first = null;
     // pointer to last node
     private Node<T> last = null;
+    // free list of unlinked nodes kept for reuse, chained through next
+    private Node<T> pool = null;
+    // number of nodes in the free list
+    private int pooled = 0;
+    // maximum number of nodes kept in the free list, 0 disables pooling
+    private int poolCapacity = 0;
 
     /**
      * Constructs a new linked list based deque with unlimited capacity.
@@ -62,6 +71,37 @@ public class SimpleLinkedDeque<T> implements SimpleDeque<T> {
         addAll(otherDeque);
     }
 
+    /**
+     * Sets the maximum number of unlinked nodes kept for reuse by later pushes.
+     * With a pool large enough for the usual backlog, steady push/pop traffic
+     * allocates no nodes. Nodes beyond the cap are left to the garbage
+     * collector, so memory is still released after bursts.
+     *
+     * @param poolCapacity maximum number of pooled nodes, 0 disables pooling
+     * @throws IllegalArgumentException if poolCapacity < 0
+     * time complexity O(n) when shrinking the pool, otherwise O(1)
+     */
+    public void setPoolCapacity(int poolCapacity) throws IllegalArgumentException {
+        if (poolCapacity < 0) {
+            throw new IllegalArgumentException();
+        }
+        this.poolCapacity = poolCapacity;
+        while (pooled > poolCapacity) {
+            final Node<T> node = pool;
+            pool = node.next;
+            node.next = null;
+            pooled--;
+        }
+    }
+
+    /**
+     * Returns the number of unlinked nodes currently kept for reuse.
+     * @return Number of pooled nodes.
+     */
+    public int pooledNodes() {
+        return pooled;
+    }
+
     @Override
     // time complexity O(1), memory complexity O(1)
     public boolean isEmpty() {
@@ -90,7 +130,7 @@ public class SimpleLinkedDeque<T> implements SimpleDeque<T> {
             throw new RuntimeException();
         }
         final Node<T> secondNode = first;
-        final Node<T> newNode = new Node<T>(null, e, secondNode);
+        final Node<T> newNode = obtainNode(null, e, secondNode);
         first = newNode;
         if (secondNode == null) {
             last = newNode;
@@ -107,7 +147,7 @@ public class SimpleLinkedDeque<T> implements SimpleDeque<T> {
             throw new RuntimeException();
         }
         final Node<T> secondLast = last;
-        final Node<T> newNode = new Node<>(secondLast, e, null);
+        final Node<T> newNode = obtainNode(secondLast, e, null);
         last = newNode;
         if (secondLast == null) {
             first = newNode;
@@ -157,6 +197,186 @@ public class SimpleLinkedDeque<T> implements SimpleDeque<T> {
         return unlinkLast(lastNode);
     }
 
+    @Override
+    // time complexity O(len), memory complexity O(len)
+    public void pushAllRight(T[] src, int off, int len) throws RuntimeException {
+        checkRange(src.length, off, len);
+        if (len == 0) {
+            return;
+        }
+        if (capacity != -1 && len > capacity - size) {
+            throw new RuntimeException();
+        }
+        // builds the chain off-list, then splices it after the last node
+        final Node<T> chainFirst = obtainNode(null, src[off], null);
+        final Node<T> chainLast = buildChain(chainFirst, src, off + 1, off + len);
+        final Node<T> secondLast = last;
+        chainFirst.prev = secondLast;
+        last = chainLast;
+        if (secondLast == null) {
+            first = chainFirst;
+        } else {
+            secondLast.next = chainFirst;
+        }
+        size += len;
+    }
+
+    @Override
+    // time complexity O(len), memory complexity O(len)
+    public void pushAllLeft(T[] src, int off, int len) throws RuntimeException {
+        checkRange(src.length, off, len);
+        if (len == 0) {
+            return;
+        }
+        if (capacity != -1 && len > capacity - size) {
+            throw new RuntimeException();
+        }
+        // builds the chain off-list, then splices it before the first node
+        final Node<T> chainFirst = obtainNode(null, src[off], null);
+        final Node<T> chainLast = buildChain(chainFirst, src, off + 1, off + len);
+        final Node<T> secondNode = first;
+        chainLast.next = secondNode;
+        first = chainFirst;
+        if (secondNode == null) {
+            last = chainLast;
+        } else {
+            secondNode.prev = chainLast;
+        }
+        size += len;
+    }
+
+    @Override
+    // time complexity O(max), memory complexity O(1)
+    public int popLeft(T[] dst, int max) {
+        checkRange(dst.length, 0, max);
+        int count = Math.min(max, size);
+        Node<T> node = first;
+        for (int i = 0; i < count; ++i) {
+            final Node<T> next = node.next;
+            dst[i] = node.item;
+            recycle(node);
+            node = next;
+        }
+        // detaches the whole removed segment at once
+        first = node;
+        if (node == null) {
+            last = null;
+        } else {
+            node.prev = null;
+        }
+        size -= count;
+        return count;
+    }
+
+    @Override
+    // time complexity O(max), memory complexity O(1)
+    public int popRight(T[] dst, int max) {
+        checkRange(dst.length, 0, max);
+        int count = Math.min(max, size);
+        Node<T> node = last;
+        for (int i = count - 1; i >= 0; --i) {
+            final Node<T> prev = node.prev;
+            dst[i] = node.item;
+            recycle(node);
+            node = prev;
+        }
+        // detaches the whole removed segment at once
+        last = node;
+        if (node == null) {
+            first = null;
+        } else {
+            node.next = null;
+        }
+        size -= count;
+        return count;
+    }
+
+    /**
+     * Moves all elements of other to the right of this deque by relinking the
+     * two chains, leaving other empty.
+     *
+     * @param other the deque whose elements are moved, must not be this deque
+     * @throws IllegalArgumentException if other is this deque
+     * @throws RuntimeException if this deque does not have room for other's elements
+     * time complexity O(1), memory complexity O(1)
+     */
+    public void appendAll(SimpleLinkedDeque<T> other) throws RuntimeException {
+        if (other == this) {
+            throw new IllegalArgumentException();
+        }
+        if (other.size == 0) {
+            return;
+        }
+        if (capacity != -1 && other.size > capacity - size) {
+            throw new RuntimeException();
+        }
+        final Node<T> secondLast = last;
+        final Node<T> otherFirst = other.first;
+        last = other.last;
+        if (secondLast == null) {
+            first = otherFirst;
+        } else {
+            secondLast.next = otherFirst;
+            otherFirst.prev = secondLast;
+        }
+        size += other.size;
+        other.first = null;
+        other.last = null;
+        other.size = 0;
+    }
+
+    /**
+     * Splits this deque at the given index: the elements from index onwards are
+     * moved, in order, to a new deque with unlimited capacity, and this deque
+     * keeps the elements before index.
+     *
+     * The split node is found by walking from the nearer end, and the chain is
+     * then cut in O(1), so no element is copied.
+     *
+     * @param index the index of the first element to move, 0 <= index <= size
+     * @return a new deque holding the elements from index onwards
+     * @throws IndexOutOfBoundsException if index < 0 or index > size
+     * time complexity O(min(index, size - index)), memory complexity O(1)
+     */
+    public SimpleLinkedDeque<T> splitAt(int index) throws IndexOutOfBoundsException {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException();
+        }
+        SimpleLinkedDeque<T> rest = new SimpleLinkedDeque<>();
+        if (index == size) {
+            return rest;
+        }
+        final Node<T> splitNode = getNode(index);
+        final Node<T> newLast = splitNode.prev;
+        rest.first = splitNode;
+        rest.last = last;
+        rest.size = size - index;
+        splitNode.prev = null;
+        last = newLast;
+        if (newLast == null) {
+            first = null;
+        } else {
+            newLast.next = null;
+        }
+        size = index;
+        return rest;
+    }
+
+    /**
+     * Checks that off and len describe a range inside an array of the given length.
+     *
+     * @param length length of the array
+     * @param off index of the first element of the range
+     * @param len number of elements in the range
+     * @throws IndexOutOfBoundsException if the range is not inside the array
+     * time complexity O(1), memory complexity O(1)
+     */
+    static void checkRange(int length, int off, int len) {
+        if (off < 0 || len < 0 || len > length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
     @Override
     // time complexity O(1), memory complexity O(1)
     public Iterator<T> iterator() {
@@ -169,6 +389,12 @@ public class SimpleLinkedDeque<T> implements SimpleDeque<T> {
         return new ReversingIterator();
     }
 
+    @Override
+    // time complexity O(1), memory complexity O(1)
+    public Spliterator<T> spliterator() {
+        return new LinkedSpliterator<>(first, size);
+    }
+
     /**
      * An container class to hold elements and their associative relations
      */
@@ -278,6 +504,84 @@ public class SimpleLinkedDeque<T> implements SimpleDeque<T> {
         }
     }
 
+    /**
+     * An implementation class of Spliterator.
+     * Splits off batches of growing size into arrays, so the nodes only need to
+     * be walked once while other threads work on the batches already split off.
+     */
+    private static final class LinkedSpliterator<T> implements Spliterator<T> {
+        // size of the first batch, grows by this much on every split
+        private static final int BATCH_UNIT = 1 << 10;
+        // the largest batch ever split off
+        private static final int MAX_BATCH = 1 << 25;
+        // the node to be accessed
+        private Node<T> current;
+        // number of elements left to traverse
+        private int remaining;
+        // size of the next batch
+        private int batch = 0;
+
+        LinkedSpliterator(Node<T> first, int size) {
+            this.current = first;
+            this.remaining = size;
+        }
+
+        @Override
+        // time complexity O(batch), memory complexity O(batch)
+        public Spliterator<T> trySplit() {
+            if (remaining <= 1) {
+                return null;
+            }
+            int count = Math.min(Math.min(batch + BATCH_UNIT, MAX_BATCH), remaining);
+            Object[] array = new Object[count];
+            Node<T> node = current;
+            for (int i = 0; i < count; ++i) {
+                array[i] = node.item;
+                node = node.next;
+            }
+            current = node;
+            remaining -= count;
+            batch = count;
+            return Spliterators.spliterator(array, 0, count, ORDERED);
+        }
+
+        @Override
+        // time complexity O(1), memory complexity O(1)
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (remaining <= 0) {
+                return false;
+            }
+            final T element = current.item;
+            current = current.next;
+            remaining--;
+            action.accept(element);
+            return true;
+        }
+
+        @Override
+        // time complexity O(n), memory complexity O(1)
+        public void forEachRemaining(Consumer<? super T> action) {
+            Node<T> node = current;
+            for (; remaining > 0; --remaining) {
+                action.accept(node.item);
+                node = node.next;
+            }
+            current = node;
+        }
+
+        @Override
+        // time complexity O(1), memory complexity O(1)
+        public long estimateSize() {
+            return remaining;
+        }
+
+        @Override
+        // time complexity O(1), memory complexity O(1)
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED;
+        }
+    }
+
     /**
      * Returns the Node at the specified element index.
      *
@@ -332,6 +636,64 @@ public class SimpleLinkedDeque<T> implements SimpleDeque<T> {
         }
     }
 
+    /**
+     * Returns a node holding the given element and relations, taken from the
+     * pool if it has one, otherwise newly allocated.
+     * @param prev previous node
+     * @param element value stored by the node
+     * @param next next node
+     * @return the node
+     * time complexity O(1), memory complexity O(1)
+     */
+    private Node<T> obtainNode(Node<T> prev, T element, Node<T> next) {
+        final Node<T> node = pool;
+        if (node == null) {
+            return new Node<>(prev, element, next);
+        }
+        pool = node.next;
+        pooled--;
+        node.prev = prev;
+        node.item = element;
+        node.next = next;
+        return node;
+    }
+
+    /**
+     * Clears an unlinked node, and keeps it for reuse if the pool has room.
+     * @param node the node that has been unlinked from the deque
+     * time complexity O(1), memory complexity O(1)
+     */
+    private void recycle(Node<T> node) {
+        node.item = null;
+        node.prev = null;
+        if (pooled < poolCapacity) {
+            node.next = pool;
+            pool = node;
+            pooled++;
+        } else {
+            node.next = null;
+        }
+    }
+
+    /**
+     * Links the elements src[from..to) one after another behind the given node.
+     * @param head the node to start the chain from
+     * @param src array holding the elements to link
+     * @param from index of the first element to link
+     * @param to index after the last element to link
+     * @return the last node of the chain
+     * time complexity O(n), memory complexity O(n)
+     */
+    private Node<T> buildChain(Node<T> head, T[] src, int from, int to) {
+        Node<T> prevNode = head;
+        for (int i = from; i < to; ++i) {
+            final Node<T> nextNode = obtainNode(prevNode, src[i], null);
+            prevNode.next = nextNode;
+            prevNode = nextNode;
+        }
+        return prevNode;
+    }
+
     /**
      * Unlinks non-null first node of deque, and returns its element.
      * @param firstNode the first node of deque
@@ -341,8 +703,7 @@ public class SimpleLinkedDeque<T> implements SimpleDeque<T> {
     private T unlinkFirst(Node<T> firstNode) {
         final T element = firstNode.item;
         final Node<T> next = firstNode.next;
-        firstNode.item = null;
-        firstNode.next = null;
+        recycle(firstNode);
         first = next;
         if (next == null) {
             last = null;
@@ -362,8 +723,7 @@ public class SimpleLinkedDeque<T> implements SimpleDeque<T> {
     private T unlinkLast(Node<T> lastNode) {
         final T element = lastNode.item;
         final Node<T> prev = lastNode.prev;
-        lastNode.item = null;
-        lastNode.prev = null;
+        recycle(lastNode);
         last = prev;
         if (prev == null) {
             first = null;
@@ -0,0 +1,298 @@
+import java.util.NoSuchElementException;
+import java.util.function.LongSupplier;
+
+/**
+ * Tracks the minimum and maximum of the samples inside a sliding window.
+ *
+ * Each extreme is kept in a monotonic deque of (key, value) pairs, where the key
+ * is the sample's sequence number for count-based windows and its timestamp for
+ * time-based windows. A new sample first pops every pair it dominates from the
+ * right, then pairs that have left the window are popped from the left, so each
+ * sample is pushed and popped at most once: amortised O(1) per sample.
+ *
+ * The deques are power-of-two rings of primitive longs addressed by masking, as
+ * in SimpleArrayDeque, so no sample is boxed.
+ */
+public class SlidingWindowMinMax {
+    // true for a count-based window, false for a time-based window
+    private final boolean countBased;
+    // number of samples, or the time span, covered by the window
+    private final long window;
+    // source of timestamps for time-based samples without an explicit one
+    private final LongSupplier clock;
+    // key of the next sample of a count-based window
+    private long sequence = 0;
+    // key of the latest sample
+    private long latestKey = Long.MIN_VALUE;
+    // keys and values in increasing order of value, leftmost is the minimum
+    private final LongPairRing minimums = new LongPairRing();
+    // keys and values in decreasing order of value, leftmost is the maximum
+    private final LongPairRing maximums = new LongPairRing();
+
+    /**
+     * Constructs a new aggregator.
+     *
+     * @param countBased true for a count-based window
+     * @param window number of samples, or the time span, covered by the window
+     * @param clock source of timestamps, unused by count-based windows
+     */
+    private SlidingWindowMinMax(boolean countBased, long window, LongSupplier clock) {
+        if (window <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.countBased = countBased;
+        this.window = window;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns an aggregator over the latest size samples.
+     *
+     * @param size number of samples in the window
+     * @return a new count-based aggregator
+     * @throws IllegalArgumentException if size <= 0
+     */
+    public static SlidingWindowMinMax countWindow(int size) throws IllegalArgumentException {
+        return new SlidingWindowMinMax(true, size, null);
+    }
+
+    /**
+     * Returns an aggregator over the samples whose timestamp lies within span of
+     * the latest timestamp, i.e. in (latest - span, latest].
+     * Samples without an explicit timestamp are stamped with System.nanoTime().
+     *
+     * @param span time span covered by the window, in nanoseconds
+     * @return a new time-based aggregator
+     * @throws IllegalArgumentException if span <= 0
+     */
+    public static SlidingWindowMinMax timeWindow(long span) throws IllegalArgumentException {
+        return timeWindow(span, System::nanoTime);
+    }
+
+    /**
+     * Returns an aggregator over the samples whose timestamp lies within span of
+     * the latest timestamp, i.e. in (latest - span, latest].
+     *
+     * @param span time span covered by the window, in units of clock
+     * @param clock source of timestamps for samples without an explicit one
+     * @return a new time-based aggregator
+     * @throws IllegalArgumentException if span <= 0
+     * @requires clock != null and never goes backwards
+     */
+    public static SlidingWindowMinMax timeWindow(long span, LongSupplier clock)
+            throws IllegalArgumentException {
+        return new SlidingWindowMinMax(false, span, clock);
+    }
+
+    /**
+     * Adds a sample, stamped with the next sequence number or the clock.
+     *
+     * @param value the sample
+     * time complexity O(1) amortised, memory complexity O(1) amortised
+     */
+    public void accept(long value) {
+        add(countBased ? sequence++ : clock.getAsLong(), value);
+        expire(latestKey);
+    }
+
+    /**
+     * Adds a batch of samples in order. All samples of a batch on a time-based
+     * window share a single timestamp read from the clock.
+     *
+     * @param samples the samples
+     * time complexity O(n) amortised, memory complexity O(1) amortised
+     */
+    public void accept(long[] samples) {
+        if (samples.length == 0) {
+            return;
+        }
+        if (countBased) {
+            for (long value : samples) {
+                add(sequence++, value);
+            }
+        } else {
+            long now = clock.getAsLong();
+            for (long value : samples) {
+                add(now, value);
+            }
+        }
+        // expiring once per batch is enough, keys only grow
+        expire(latestKey);
+    }
+
+    /**
+     * Adds a sample with an explicit timestamp to a time-based window.
+     *
+     * @param timestamp timestamp of the sample, not smaller than the previous one
+     * @param value the sample
+     * @throws IllegalStateException if this is a count-based window
+     * @throws IllegalArgumentException if timestamp goes backwards
+     * time complexity O(1) amortised, memory complexity O(1) amortised
+     */
+    public void accept(long timestamp, long value) {
+        if (countBased) {
+            throw new IllegalStateException();
+        }
+        if (timestamp < latestKey) {
+            throw new IllegalArgumentException();
+        }
+        add(timestamp, value);
+        expire(latestKey);
+    }
+
+    /**
+     * Drops the samples of a time-based window that are older than span
+     * before the given time, without adding a sample.
+     *
+     * @param now the current time
+     * @throws IllegalStateException if this is a count-based window
+     * time complexity O(1) amortised, memory complexity O(1)
+     */
+    public void advanceTo(long now) {
+        if (countBased) {
+            throw new IllegalStateException();
+        }
+        expire(now);
+    }
+
+    /**
+     * Returns whether the window holds no sample.
+     *
+     * @return true if the window is empty, otherwise false
+     */
+    public boolean isEmpty() {
+        return minimums.isEmpty();
+    }
+
+    /**
+     * Returns the smallest sample in the window.
+     *
+     * @return the minimum
+     * @throws NoSuchElementException if the window is empty
+     * time complexity O(1), memory complexity O(1)
+     */
+    public long min() throws NoSuchElementException {
+        if (minimums.isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return minimums.leftValue();
+    }
+
+    /**
+     * Returns the largest sample in the window.
+     *
+     * @return the maximum
+     * @throws NoSuchElementException if the window is empty
+     * time complexity O(1), memory complexity O(1)
+     */
+    public long max() throws NoSuchElementException {
+        if (maximums.isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return maximums.leftValue();
+    }
+
+    /**
+     * Pushes a sample onto both monotonic deques, popping the pairs it dominates.
+     * Equal values replace older ones, which leave the window first.
+     *
+     * @param key sequence number or timestamp of the sample
+     * @param value the sample
+     */
+    private void add(long key, long value) {
+        latestKey = key;
+        while (!minimums.isEmpty() && minimums.rightValue() >= value) {
+            minimums.popRight();
+        }
+        minimums.pushRight(key, value);
+        while (!maximums.isEmpty() && maximums.rightValue() <= value) {
+            maximums.popRight();
+        }
+        maximums.pushRight(key, value);
+    }
+
+    /**
+     * Pops the pairs that are no longer inside the window ending at the given key.
+     *
+     * @param key the key of the end of the window
+     */
+    private void expire(long key) {
+        long oldest = key - window;
+        while (!minimums.isEmpty() && minimums.leftKey() <= oldest) {
+            minimums.popLeft();
+        }
+        while (!maximums.isEmpty() && maximums.leftKey() <= oldest) {
+            maximums.popLeft();
+        }
+    }
+
+    /**
+     * A growable ring of (key, value) pairs of primitive longs, supporting the
+     * deque operations needed by a monotonic deque.
+     */
+    private static final class LongPairRing {
+        // The default minimum capacity of the ring
+        private static final int INITIAL_CAPACITY = 8;
+        private long[] keys = new long[INITIAL_CAPACITY];
+        private long[] values = new long[INITIAL_CAPACITY];
+        // The index of the pair at the head of the ring.
+        private int head = 0;
+        // The index at which the next pair would be added to the tail.
+        private int tail = 0;
+
+        boolean isEmpty() {
+            return head == tail;
+        }
+
+        long leftKey() {
+            return keys[head];
+        }
+
+        long leftValue() {
+            return values[head];
+        }
+
+        long rightValue() {
+            return values[(tail - 1) & (values.length - 1)];
+        }
+
+        void popLeft() {
+            head = (head + 1) & (values.length - 1);
+        }
+
+        void popRight() {
+            tail = (tail - 1) & (values.length - 1);
+        }
+
+        void pushRight(long key, long value) {
+            keys[tail] = key;
+            values[tail] = value;
+            if ((tail = (tail + 1) & (values.length - 1)) == head) {
+                doubleCapacity();
+            }
+        }
+
+        /**
+         * Doubles the capacity of the ring.  Call only when full, i.e.,
+         * when head and tail have wrapped around to become equal.
+         * time complexity O(n), memory complexity O(n)
+         */
+        private void doubleCapacity() {
+            int length = values.length;
+            int numElements = length - head;
+            int newCapacity = length << 1;
+            if (newCapacity < 0)
+                throw new IllegalStateException("Window is too big.");
+            long[] newKeys = new long[newCapacity];
+            long[] newValues = new long[newCapacity];
+            System.arraycopy(keys, head, newKeys, 0, numElements);
+            System.arraycopy(keys, 0, newKeys, numElements, head);
+            System.arraycopy(values, head, newValues, 0, numElements);
+            System.arraycopy(values, 0, newValues, numElements, head);
+            keys = newKeys;
+            values = newValues;
+            head = 0;
+            tail = length;
+        }
+    }
+}
@@ -1,6 +1,25 @@
-import java.util.Stack;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 
 public class SortingAlgorithms {
+    // subarrays and runs no larger than this are sorted and merged sequentially
+    private static final int SEQUENTIAL_THRESHOLD = 1 << 13;
+    // partitions with fewer elements than this are insertion sorted
+    private static final int INSERTION_THRESHOLD = 16;
+    // bits per radix sort digit, and the number of distinct digits
+    private static final int DIGIT_BITS = 8;
+    private static final int RADIX = 1 << DIGIT_BITS;
+    // arrays shorter than this are quick sorted rather than radix sorted
+    private static final int RADIX_THRESHOLD = 256;
+    // sample elements taken per sample sort bucket
+    private static final int OVERSAMPLING = 32;
+
     /**
      * Sorts the given array using the selection sort algorithm.
      * This should modify the array in-place.
@@ -11,16 +30,33 @@ public class SortingAlgorithms {
      * @requires input != null
      */
     static <T extends Comparable> void selectionSort(T[] input, boolean reversed) {
+        selectionSort(input, naturalOrder(), reversed);
+    }
+
+    /**
+     * Sorts the given array using the selection sort algorithm, in the order
+     * of the given comparator.
+     * This should modify the array in-place.
+     *
+     * @param input An array of objects.
+     * @param comparator The order to sort the array in.
+     * @param reversed If false, the array should be sorted in the order of
+     *                 comparator. Otherwise, it should be sorted in reverse.
+     * @requires input != null, comparator != null
+     */
+    static <T> void selectionSort(T[] input, Comparator<? super T> comparator,
+                                  boolean reversed) {
         if (input == null) {
             return;
         }
+        Comparator<? super T> order = order(comparator, reversed);
         int outer, inner, minimum; // indices
         int length = input.length - 1;
         T temp;
         for (outer = 0; outer < length; ++outer) {
             minimum = outer;
             for (inner = outer + 1; inner < input.length; ++inner) {
-                if (input[minimum].compareTo(input[inner]) == 1) {
+                if (order.compare(input[minimum], input[inner]) > 0) {
                     minimum = inner;
                 }
             }
@@ -28,32 +64,28 @@ public class SortingAlgorithms {
             input[outer] = input[minimum];
             input[minimum] = temp;
         }
-        // reverse the order of array
-        if (reversed) {
-            reverse(input);
-        }
     }
 
     /**
-     * Rearranges the given array in reversed order.
+     * Returns the natural order of comparable objects.
+     * This is a helper function.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T extends Comparable> Comparator<T> naturalOrder() {
+        return (x, y) -> x.compareTo(y);
+    }
+
+    /**
+     * Returns the order to sort in. Reversing the comparator rather than the
+     * sorted array keeps equal elements in their original order.
      * This is a helper function.
      *
-     * @param input An array of comparable objects.
+     * @param comparator The order to sort in if not reversed.
+     * @param reversed Whether to sort in the reverse order.
      */
-    private static <T extends Comparable> void reverse(T[] input) {
-        T temp;
-        for (int i = 0; i < input.length / 2; ++i) {
-            temp = input[i];
-            input[i] = input[input.length - i - 1];
-            input[input.length - i - 1] = temp;
-        }
-//        Stack<T> temp = new Stack<>();
-//        for (T t : input) {
-//            temp.push(t);
-//        }
-//        for (int i = input.length - 1; i >= 0; --i) {
-//            input[i] = temp.pop();
-//        }
+    private static <T> Comparator<? super T> order(
+            Comparator<? super T> comparator, boolean reversed) {
+        return reversed ? comparator.reversed() : comparator;
     }
 
     /**
@@ -66,99 +98,1202 @@ public class SortingAlgorithms {
      * @requires input != null
      */
     static <T extends Comparable> void insertionSort(T[] input, boolean reversed) {
+        insertionSort(input, naturalOrder(), reversed);
+    }
+
+    /**
+     * Sorts the given array using the insertion sort algorithm, in the order
+     * of the given comparator.
+     * This should modify the array in-place.
+     *
+     * @param input An array of objects.
+     * @param comparator The order to sort the array in.
+     * @param reversed If false, the array should be sorted in the order of
+     *                 comparator. Otherwise, it should be sorted in reverse.
+     * @requires input != null, comparator != null
+     */
+    static <T> void insertionSort(T[] input, Comparator<? super T> comparator,
+                                  boolean reversed) {
+        Comparator<? super T> order = order(comparator, reversed);
         int outer, inner;
         T temp;
         for (outer = 1; outer < input.length; ++outer) {
             inner = outer;
             temp = input[inner];
-            while (inner > 0 && input[inner - 1].compareTo(temp) == 1) {
+            while (inner > 0 && order.compare(input[inner - 1], temp) > 0) {
                 input[inner] = input[inner - 1];
                 --inner;
             }
             input[inner] = temp;
         }
-        if (reversed) {
-            reverse(input);
-        }
     }
 
     /**
      * Sorts the given array using the merge sort algorithm.
      * This should modify the array in-place.
      *
+     * A single auxiliary array is allocated for the whole sort. The input and
+     * the auxiliary array swap the roles of source and destination at each
+     * level of recursion, so no level has to copy its merged run back.
+     *
      * @param input An array of comparable objects.
      * @param reversed If false, the array should be sorted ascending.
      *                 Otherwise, it should be sorted descending.
      * @requires input != null
      */
     static <T extends Comparable> void mergeSort(T[] input, boolean reversed) {
+        mergeSort(input, naturalOrder(), reversed);
+    }
+
+    /**
+     * Sorts the given array using the merge sort algorithm, in the order of
+     * the given comparator. The sort is stable in both directions.
+     * This should modify the array in-place.
+     *
+     * @param input An array of objects.
+     * @param comparator The order to sort the array in.
+     * @param reversed If false, the array should be sorted in the order of
+     *                 comparator. Otherwise, it should be sorted in reverse.
+     * @requires input != null, comparator != null
+     */
+    static <T> void mergeSort(T[] input, Comparator<? super T> comparator,
+                              boolean reversed) {
         if (input == null) {
             return;
         }
-        runMergeSort(input, 0, input.length - 1);
-        if (reversed) {
-            reverse(input);
+        T[] buffer = input.clone();
+        runMergeSort(buffer, input, 0, input.length - 1,
+                order(comparator, reversed));
+    }
+
+    /**
+     * Sorts the given array using the merge sort algorithm, sorting subarrays
+     * and merging large runs in parallel on the common ForkJoinPool.
+     * This should modify the array in-place.
+     *
+     * @param input An array of comparable objects.
+     * @param reversed If false, the array should be sorted ascending.
+     *                 Otherwise, it should be sorted descending.
+     * @requires input != null
+     */
+    static <T extends Comparable> void parallelMergeSort(T[] input,
+                                                         boolean reversed) {
+        parallelMergeSort(input, naturalOrder(), reversed);
+    }
+
+    /**
+     * Sorts the given array using the merge sort algorithm in parallel, as
+     * parallelMergeSort does, in the order of the given comparator.
+     * This should modify the array in-place.
+     *
+     * @param input An array of objects.
+     * @param comparator The order to sort the array in.
+     * @param reversed If false, the array should be sorted in the order of
+     *                 comparator. Otherwise, it should be sorted in reverse.
+     * @requires input != null, comparator != null
+     */
+    static <T> void parallelMergeSort(T[] input, Comparator<? super T> comparator,
+                                      boolean reversed) {
+        if (input == null) {
+            return;
         }
+        T[] buffer = input.clone();
+        ForkJoinPool.commonPool().invoke(new MergeSortTask<>(buffer, input, 0,
+                input.length - 1, order(comparator, reversed)));
     }
 
     /**
      * Sorts the given array using the merge sort algorithm.
      * This is a helper function for mergeSort.
      *
-     * @param array An array of comparable objects.
+     * Sorts destination[start..end] in the given order. source[start..end]
+     * must hold the same elements on entry, and is used as scratch space.
+     *
+     * @param source An array holding the same elements as destination.
+     * @param destination The array to sort.
      * @param start The starting index of the given array.
      * @param end The ending index of the given array.
+     * @param order The order to sort in.
      */
-    private static <T extends Comparable> void runMergeSort(T[] array,
-                                                            int start, int end) {
+    private static <T> void runMergeSort(T[] source, T[] destination, int start,
+            int end, Comparator<? super T> order) {
         if (start >= end) {
             return;
         }
-        int middle = (start + end) / 2;
-        // recursively, sort the left half of the array
-        runMergeSort(array, start, middle);
-        // recursively, sort the right half of the array
-        runMergeSort(array, middle + 1, end);
-        // merge the two sorted halves
-        merge(array, start, middle, end);
+        int middle = (start + end) >>> 1;
+        // recursively, sort both halves into source, whose elements are the
+        // same as those of destination
+        runMergeSort(destination, source, start, middle, order);
+        runMergeSort(destination, source, middle + 1, end, order);
+        // merge the two sorted halves into destination
+        merge(source, start, middle, middle + 1, end, destination, start, order);
     }
 
     /**
-     * Merges the given array in ascending order.
+     * Merges two sorted runs of source into destination in the given order.
+     * Elements of the left run come first among equal ones.
      * This is a helper function for mergeSort.
      *
-     * @param array An array of comparable objects.
-     * @param start The starting index of the given array.
-     * @param middle The index of the middle element of the given array.
-     * @param end The ending index of the given array.
+     * @param source The array holding both runs.
+     * @param leftStart The starting index of the left run.
+     * @param leftEnd The ending index of the left run.
+     * @param rightStart The starting index of the right run.
+     * @param rightEnd The ending index of the right run.
+     * @param destination The array to merge into.
+     * @param index The index of destination to store the first element at.
+     * @param order The order the runs are sorted in.
+     */
+    private static <T> void merge(T[] source, int leftStart, int leftEnd,
+            int rightStart, int rightEnd, T[] destination, int index,
+            Comparator<? super T> order) {
+        // fills the destination in order using the runs,
+        // until one of the runs is finished
+        while (leftStart <= leftEnd && rightStart <= rightEnd) {
+            if (order.compare(source[leftStart], source[rightStart]) <= 0) {
+                destination[index++] = source[leftStart++];
+            } else {
+                destination[index++] = source[rightStart++];
+            }
+        }
+        // copies the rest of the unfinished run
+        if (leftStart <= leftEnd) {
+            System.arraycopy(source, leftStart, destination, index,
+                    leftEnd - leftStart + 1);
+        } else if (rightStart <= rightEnd) {
+            System.arraycopy(source, rightStart, destination, index,
+                    rightEnd - rightStart + 1);
+        }
+    }
+
+    /**
+     * Returns the first index of array[start..end] whose element comes after
+     * (or, if inclusive, does not come before) key in the given order, or
+     * end + 1.
+     * This is a helper function for parallelMergeSort.
+     */
+    private static <T> int search(T[] array, int start, int end, T key,
+            boolean inclusive, Comparator<? super T> order) {
+        int low = start;
+        int high = end + 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int comparison = order.compare(array[middle], key);
+            if (comparison < 0 || (comparison == 0 && !inclusive)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Sorts a subarray as runMergeSort does, forking its halves while they
+     * are larger than SEQUENTIAL_THRESHOLD.
+     */
+    private static class MergeSortTask<T> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final T[] source;
+        private final T[] destination;
+        private final int start;
+        private final int end;
+        private final Comparator<? super T> order;
+
+        MergeSortTask(T[] source, T[] destination, int start, int end,
+                      Comparator<? super T> order) {
+            this.source = source;
+            this.destination = destination;
+            this.start = start;
+            this.end = end;
+            this.order = order;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start < SEQUENTIAL_THRESHOLD) {
+                runMergeSort(source, destination, start, end, order);
+                return;
+            }
+            int middle = (start + end) >>> 1;
+            invokeAll(new MergeSortTask<>(destination, source, start, middle, order),
+                    new MergeSortTask<>(destination, source, middle + 1, end, order));
+            new MergeTask<>(source, start, middle, middle + 1, end,
+                    destination, start, order).compute();
+        }
+    }
+
+    /**
+     * Merges two sorted runs as merge does. While the runs are larger than
+     * SEQUENTIAL_THRESHOLD, the middle element of the longer run is located in
+     * the shorter one, which splits the merge into two independent ones.
+     */
+    private static class MergeTask<T> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final T[] source;
+        private final int leftStart;
+        private final int leftEnd;
+        private final int rightStart;
+        private final int rightEnd;
+        private final T[] destination;
+        private final int index;
+        private final Comparator<? super T> order;
+
+        MergeTask(T[] source, int leftStart, int leftEnd, int rightStart,
+                  int rightEnd, T[] destination, int index,
+                  Comparator<? super T> order) {
+            this.source = source;
+            this.leftStart = leftStart;
+            this.leftEnd = leftEnd;
+            this.rightStart = rightStart;
+            this.rightEnd = rightEnd;
+            this.destination = destination;
+            this.index = index;
+            this.order = order;
+        }
+
+        @Override
+        protected void compute() {
+            int leftLength = leftEnd - leftStart + 1;
+            int rightLength = rightEnd - rightStart + 1;
+            if (leftLength + rightLength <= SEQUENTIAL_THRESHOLD) {
+                merge(source, leftStart, leftEnd, rightStart, rightEnd,
+                        destination, index, order);
+                return;
+            }
+            // elements of the left run go first among equal ones, so ties
+            // with a left key stay left of it and ties with a right key too
+            int leftSplit;
+            int rightSplit;
+            if (leftLength >= rightLength) {
+                leftSplit = (leftStart + leftEnd) >>> 1;
+                rightSplit = search(source, rightStart, rightEnd,
+                        source[leftSplit], true, order);
+            } else {
+                rightSplit = (rightStart + rightEnd) >>> 1;
+                leftSplit = search(source, leftStart, leftEnd,
+                        source[rightSplit], false, order);
+            }
+            int splitIndex = index + (leftSplit - leftStart)
+                    + (rightSplit - rightStart);
+            invokeAll(new MergeTask<>(source, leftStart, leftSplit - 1,
+                            rightStart, rightSplit - 1, destination, index, order),
+                    new MergeTask<>(source, leftSplit, leftEnd,
+                            rightSplit, rightEnd, destination, splitIndex, order));
+        }
+    }
+
+    /**
+     * Sorts the given array using a parallel sample sort.
+     * This should modify the array in-place.
+     *
+     * Splitters are picked from a sorted random sample of the array, a
+     * multiple of the number of buckets in size, so the buckets come out
+     * close to equal in size. Blocks of the array are then classified into
+     * buckets in parallel, by binary search among the splitters. Each block
+     * scatters its elements into its own precomputed slots of one output
+     * buffer. Finally the buckets are merge sorted in parallel. Elements
+     * equal to a splitter get a bucket of their own, which needs no sorting,
+     * so inputs with few distinct values stay balanced too. Blocks and buckets
+     * keep the original order of equal elements, so the sort is stable.
+     * Arrays shorter than SEQUENTIAL_THRESHOLD are merge sorted sequentially.
+     *
+     * @param input An array of comparable objects.
+     * @param reversed If false, the array should be sorted ascending.
+     *                 Otherwise, it should be sorted descending.
+     * @requires input != null
+     */
+    static <T extends Comparable> void parallelSampleSort(T[] input,
+                                                          boolean reversed) {
+        parallelSampleSort(input, naturalOrder(), reversed);
+    }
+
+    /**
+     * Sorts the given array using the parallel sample sort of
+     * parallelSampleSort, in the order of the given comparator.
+     * This should modify the array in-place.
+     *
+     * @param input An array of objects.
+     * @param comparator The order to sort the array in.
+     * @param reversed If false, the array should be sorted in the order of
+     *                 comparator. Otherwise, it should be sorted in reverse.
+     * @requires input != null, comparator != null
+     */
+    static <T> void parallelSampleSort(T[] input, Comparator<? super T> comparator,
+                                       boolean reversed) {
+        if (input == null) {
+            return;
+        }
+        Comparator<? super T> order = order(comparator, reversed);
+        int length = input.length;
+        if (length < SEQUENTIAL_THRESHOLD) {
+            runMergeSort(input.clone(), input, 0, length - 1, order);
+            return;
+        }
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int parallelism = pool.getParallelism();
+        // a few blocks and buckets per thread, so work stealing can even out
+        // the load
+        int blocks = Math.min(4 * parallelism, length / SEQUENTIAL_THRESHOLD + 1);
+        int splitterCount = Math.min(4 * parallelism,
+                length / SEQUENTIAL_THRESHOLD);
+        T[] splitters = pickSplitters(input, splitterCount, order);
+        // bucket 2i holds elements between splitters i - 1 and i, bucket
+        // 2i + 1 the elements equal to splitter i
+        int buckets = 2 * splitters.length + 1;
+        int blockLength = (length + blocks - 1) / blocks;
+        int[] bucketOf = new int[length];
+        int[][] counts = new int[blocks][buckets];
+        pool.invoke(new RangeTask(0, blocks, block -> {
+            int end = Math.min(length, (block + 1) * blockLength);
+            int[] blockCounts = counts[block];
+            for (int i = block * blockLength; i < end; ++i) {
+                int bucket = classify(input[i], splitters, order);
+                bucketOf[i] = bucket;
+                ++blockCounts[bucket];
+            }
+        }));
+        // each block writes a bucket's elements after those of earlier blocks
+        int[] bucketStarts = new int[buckets + 1];
+        int total = 0;
+        for (int bucket = 0; bucket < buckets; ++bucket) {
+            bucketStarts[bucket] = total;
+            for (int block = 0; block < blocks; ++block) {
+                int count = counts[block][bucket];
+                counts[block][bucket] = total;
+                total += count;
+            }
+        }
+        bucketStarts[buckets] = total;
+        Object[] buffer = new Object[length];
+        pool.invoke(new RangeTask(0, blocks, block -> {
+            int end = Math.min(length, (block + 1) * blockLength);
+            int[] offsets = counts[block];
+            for (int i = block * blockLength; i < end; ++i) {
+                buffer[offsets[bucketOf[i]]++] = input[i];
+            }
+        }));
+        pool.invoke(new RangeTask(0, buckets, bucket -> {
+            int start = bucketStarts[bucket];
+            int count = bucketStarts[bucket + 1] - start;
+            System.arraycopy(buffer, start, input, start, count);
+            if (bucket % 2 == 0 && count > 1) {
+                @SuppressWarnings("unchecked")
+                T[] scratch = (T[]) buffer;
+                runMergeSort(scratch, input, start, start + count - 1, order);
+            }
+        }));
+    }
+
+    /**
+     * Returns count distinct splitters in ascending order, taken at regular
+     * intervals from a sorted random sample of the given array. Fewer are
+     * returned if the sample has fewer distinct values.
+     * This is a helper function for parallelSampleSort.
+     *
+     * @param input An array of objects.
+     * @param count The number of splitters wanted.
+     * @param order The order to sort in.
+     */
+    private static <T> T[] pickSplitters(T[] input, int count,
+            Comparator<? super T> order) {
+        T[] sample = Arrays.copyOf(input, (count + 1) * OVERSAMPLING);
+        // a fixed seed keeps the bucket layout reproducible
+        SplittableRandom random = new SplittableRandom(input.length);
+        for (int i = 0; i < sample.length; ++i) {
+            sample[i] = input[random.nextInt(input.length)];
+        }
+        runQuickSort(sample, 0, sample.length - 1,
+                2 * (31 - Integer.numberOfLeadingZeros(sample.length)), order);
+        T[] splitters = Arrays.copyOf(sample, count);
+        int distinct = 0;
+        for (int i = 1; i <= count; ++i) {
+            T candidate = sample[i * OVERSAMPLING - 1];
+            if (distinct == 0
+                    || order.compare(splitters[distinct - 1], candidate) < 0) {
+                splitters[distinct++] = candidate;
+            }
+        }
+        return Arrays.copyOf(splitters, distinct);
+    }
+
+    /**
+     * Returns the bucket of the given element: 2i if it comes after splitter
+     * i - 1 and before splitter i, 2i + 1 if it is equal to splitter i.
+     * This is a helper function for parallelSampleSort.
+     */
+    private static <T> int classify(T element, T[] splitters,
+            Comparator<? super T> order) {
+        int low = 0;
+        int high = splitters.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int comparison = order.compare(splitters[middle], element);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle;
+            } else {
+                return 2 * middle + 1;
+            }
+        }
+        return 2 * low;
+    }
+
+    /**
+     * Runs a body for every index of a range, splitting the range in halves
+     * across the pool until single indices remain.
+     */
+    private static class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final IntConsumer body;
+
+        RangeTask(int from, int to, IntConsumer body) {
+            this.from = from;
+            this.to = to;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                body.accept(from);
+            } else if (to > from) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RangeTask(from, middle, body),
+                        new RangeTask(middle, to, body));
+            }
+        }
+    }
+
+    /**
+     * Sorts the given array using an adaptive, stable merge sort in the style
+     * of TimSort. This should modify the array in-place.
+     *
+     * The array is scanned for natural runs, strictly descending ones being
+     * reversed in place, and runs shorter than a minimum length are extended
+     * by binary insertion sort. Runs are merged as they are found, keeping the
+     * run lengths on the stack decreasing like Fibonacci numbers so merges
+     * stay balanced. Merges skip the parts of the runs that are already in
+     * place, and switch to galloping (exponential search and bulk copies)
+     * while one run keeps winning. An already ordered array is sorted in n - 1
+     * comparisons.
+     *
+     * @param input An array of comparable objects.
+     * @param reversed If false, the array should be sorted ascending.
+     *                 Otherwise, it should be sorted descending.
+     * @requires input != null
+     */
+    static <T extends Comparable> void timSort(T[] input, boolean reversed) {
+        timSort(input, naturalOrder(), reversed);
+    }
+
+    /**
+     * Sorts the given array using the adaptive merge sort of timSort, in the
+     * order of the given comparator. The sort is stable in both directions.
+     * This should modify the array in-place.
+     *
+     * @param input An array of objects.
+     * @param comparator The order to sort the array in.
+     * @param reversed If false, the array should be sorted in the order of
+     *                 comparator. Otherwise, it should be sorted in reverse.
+     * @requires input != null, comparator != null
+     */
+    static <T> void timSort(T[] input, Comparator<? super T> comparator,
+                            boolean reversed) {
+        if (input == null) {
+            return;
+        }
+        if (input.length > 1) {
+            new RunMerger<>(input, order(comparator, reversed)).sort();
+        }
+    }
+
+    /**
+     * The state of one timSort: the array, the stack of pending runs and the
+     * merge buffer, which is grown on demand and reused by every merge.
+     */
+    private static class RunMerger<T> {
+        // arrays shorter than this are sorted by binary insertion sort alone
+        private static final int MIN_MERGE = 32;
+        // initial number of consecutive wins for a run before galloping
+        private static final int MIN_GALLOP = 7;
+
+        private final T[] array;
+        // the order to sort in
+        private final Comparator<? super T> order;
+        // copy of the left run of the current merge
+        private T[] buffer;
+        // consecutive wins before galloping, adapted to the data
+        private int minGallop = MIN_GALLOP;
+        // starting indices and lengths of the pending runs, the lengths are
+        // bounded by Fibonacci numbers so 49 entries cover any int length
+        private final int[] runBase = new int[49];
+        private final int[] runLength = new int[49];
+        private int stackSize = 0;
+
+        @SuppressWarnings("unchecked")
+        RunMerger(T[] array, Comparator<? super T> order) {
+            this.array = array;
+            this.order = order;
+            this.buffer = (T[]) new Object[Math.min(array.length, 256)];
+        }
+
+        /**
+         * Sorts the whole array.
+         * time complexity O(n log n), O(n) if already ordered,
+         * memory complexity O(n)
+         */
+        void sort() {
+            int length = array.length;
+            int minRun = minRunLength(length);
+            int start = 0;
+            while (start < length) {
+                int run = countRunAndMakeAscending(start, length);
+                if (run < minRun) {
+                    int forced = Math.min(minRun, length - start);
+                    binaryInsertionSort(start, start + forced, start + run);
+                    run = forced;
+                }
+                runBase[stackSize] = start;
+                runLength[stackSize++] = run;
+                mergeCollapse();
+                start += run;
+            }
+            // merges the remaining runs, right to left
+            while (stackSize > 1) {
+                int n = stackSize - 2;
+                if (n > 0 && runLength[n - 1] < runLength[n + 1]) {
+                    --n;
+                }
+                mergeAt(n);
+            }
+        }
+
+        /**
+         * Returns the minimum run length, such that length / minRun is a
+         * power of two or slightly less, which balances the final merges.
+         */
+        private static int minRunLength(int length) {
+            int remainder = 0;
+            while (length >= MIN_MERGE) {
+                remainder |= length & 1;
+                length >>= 1;
+            }
+            return length + remainder;
+        }
+
+        /**
+         * Returns the length of the run starting at start, reversing it if it
+         * is strictly descending. Non-strict descending runs are not reversed,
+         * as that would reorder equal elements.
+         */
+        private int countRunAndMakeAscending(int start, int end) {
+            int runEnd = start + 1;
+            if (runEnd == end) {
+                return 1;
+            }
+            if (order.compare(array[runEnd++], array[start]) < 0) {
+                while (runEnd < end
+                        && order.compare(array[runEnd], array[runEnd - 1]) < 0) {
+                    ++runEnd;
+                }
+                reverseRange(start, runEnd - 1);
+            } else {
+                while (runEnd < end
+                        && order.compare(array[runEnd], array[runEnd - 1]) >= 0) {
+                    ++runEnd;
+                }
+            }
+            return runEnd - start;
+        }
+
+        /**
+         * Reverses array[start..end].
+         */
+        private void reverseRange(int start, int end) {
+            while (start < end) {
+                swap(array, start++, end--);
+            }
+        }
+
+        /**
+         * Sorts array[start..end - 1], of which array[start..sorted - 1] is
+         * already sorted, inserting each element after the equal ones.
+         */
+        private void binaryInsertionSort(int start, int end, int sorted) {
+            for (; sorted < end; ++sorted) {
+                T pivot = array[sorted];
+                int position = start + gallop(pivot, array, start,
+                        sorted - start, true, order);
+                System.arraycopy(array, position, array, position + 1,
+                        sorted - position);
+                array[position] = pivot;
+            }
+        }
+
+        /**
+         * Merges runs from the top of the stack until their lengths satisfy
+         * runLength[i - 2] > runLength[i - 1] + runLength[i] and
+         * runLength[i - 1] > runLength[i] for every i.
+         */
+        private void mergeCollapse() {
+            while (stackSize > 1) {
+                int n = stackSize - 2;
+                if ((n > 0 && runLength[n - 1] <= runLength[n] + runLength[n + 1])
+                        || (n > 1 && runLength[n - 2] <= runLength[n - 1] + runLength[n])) {
+                    if (runLength[n - 1] < runLength[n + 1]) {
+                        --n;
+                    }
+                } else if (runLength[n] > runLength[n + 1]) {
+                    return;
+                }
+                mergeAt(n);
+            }
+        }
+
+        /**
+         * Merges the runs at positions i and i + 1 of the stack.
+         */
+        private void mergeAt(int i) {
+            int leftBase = runBase[i];
+            int leftLength = runLength[i];
+            int rightBase = runBase[i + 1];
+            int rightLength = runLength[i + 1];
+            runLength[i] = leftLength + rightLength;
+            if (i == stackSize - 3) {
+                runBase[i + 1] = runBase[i + 2];
+                runLength[i + 1] = runLength[i + 2];
+            }
+            --stackSize;
+            // elements of the left run no greater than the first of the right
+            // run, and elements of the right run less than the last of the
+            // left run, are already in place
+            int skipped = gallop(array[rightBase], array, leftBase, leftLength,
+                    true, order);
+            leftBase += skipped;
+            leftLength -= skipped;
+            if (leftLength == 0) {
+                return;
+            }
+            rightLength = gallop(array[leftBase + leftLength - 1], array,
+                    rightBase, rightLength, false, order);
+            if (rightLength == 0) {
+                return;
+            }
+            mergeRuns(leftBase, leftLength, rightBase, rightLength);
+        }
+
+        /**
+         * Merges two adjacent sorted runs, copying the left one to the buffer.
+         */
+        @SuppressWarnings("unchecked")
+        private void mergeRuns(int leftBase, int leftLength, int rightBase,
+                               int rightLength) {
+            if (buffer.length < leftLength) {
+                int grown = Math.max(leftLength, Math.min(array.length,
+                        buffer.length << 1));
+                buffer = (T[]) new Object[grown];
+            }
+            System.arraycopy(array, leftBase, buffer, 0, leftLength);
+            int left = 0; // indices into buffer, array and array
+            int right = rightBase;
+            int index = leftBase;
+            int gallopAfter = minGallop;
+            merging:
+            while (true) {
+                int leftWins = 0;
+                int rightWins = 0;
+                // one element at a time, until a run wins gallopAfter times
+                do {
+                    if (order.compare(array[right], buffer[left]) < 0) {
+                        array[index++] = array[right++];
+                        ++rightWins;
+                        leftWins = 0;
+                        if (--rightLength == 0) {
+                            break merging;
+                        }
+                    } else {
+                        array[index++] = buffer[left++];
+                        ++leftWins;
+                        rightWins = 0;
+                        if (--leftLength == 0) {
+                            break merging;
+                        }
+                    }
+                } while ((leftWins | rightWins) < gallopAfter);
+                // galloping, while it keeps copying long stretches
+                do {
+                    leftWins = gallop(array[right], buffer, left, leftLength,
+                            true, order);
+                    System.arraycopy(buffer, left, array, index, leftWins);
+                    index += leftWins;
+                    left += leftWins;
+                    leftLength -= leftWins;
+                    if (leftLength == 0) {
+                        break merging;
+                    }
+                    array[index++] = array[right++];
+                    if (--rightLength == 0) {
+                        break merging;
+                    }
+                    rightWins = gallop(buffer[left], array, right, rightLength,
+                            false, order);
+                    System.arraycopy(array, right, array, index, rightWins);
+                    index += rightWins;
+                    right += rightWins;
+                    rightLength -= rightWins;
+                    if (rightLength == 0) {
+                        break merging;
+                    }
+                    array[index++] = buffer[left++];
+                    if (--leftLength == 0) {
+                        break merging;
+                    }
+                    --gallopAfter;
+                } while (leftWins >= MIN_GALLOP || rightWins >= MIN_GALLOP);
+                // galloping stopped paying off, make it harder to start again
+                gallopAfter = Math.max(gallopAfter, 0) + 2;
+            }
+            minGallop = Math.max(gallopAfter, 1);
+            // the rest of the right run is already in place
+            System.arraycopy(buffer, left, array, index, leftLength);
+        }
+
+        /**
+         * Returns the number of leading elements of source[base..base +
+         * length - 1] that are less than key or, if after, no greater than it.
+         * Probes offsets 1, 3, 7, 15, ... before binary searching, so it takes
+         * O(log k) comparisons for a result k.
+         */
+        private static <T> int gallop(T key, T[] source, int base, int length,
+                boolean after, Comparator<? super T> order) {
+            int known = 0; // leading elements known to qualify
+            int step = 1;
+            while (step > 0 && step <= length - known
+                    && precedes(source[base + known + step - 1], key, after, order)) {
+                known += step;
+                step <<= 1;
+            }
+            int low = known;
+            int high = (step > 0 && step <= length - known)
+                    ? known + step - 1 : length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (precedes(source[base + middle], key, after, order)) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Returns whether element goes before key, where equal elements go
+         * before it if after is true.
+         */
+        private static <T> boolean precedes(T element, T key, boolean after,
+                Comparator<? super T> order) {
+            int comparison = order.compare(element, key);
+            return comparison < 0 || (after && comparison == 0);
+        }
+    }
+
+    /**
+     * Sorts the given array using an LSD radix sort on 8-bit digits.
+     * This should modify the array in-place.
+     *
+     * The digit counts of all four passes are taken in one read of the array,
+     * and a pass is skipped when every value has the same digit. Each pass
+     * moves the values between the input and one scratch array. The sign bit
+     * is flipped when counting, so negative values come first. Arrays shorter
+     * than RADIX_THRESHOLD are quick sorted instead.
+     *
+     * @param input An array of ints.
+     * @param reversed If false, the array should be sorted ascending.
+     *                 Otherwise, it should be sorted descending.
+     * @requires input != null
+     */
+    static void radixSort(int[] input, boolean reversed) {
+        if (input == null) {
+            return;
+        }
+        int length = input.length;
+        if (length < RADIX_THRESHOLD) {
+            quickSort(input, 0, length - 1);
+            if (reversed) {
+                reverse(input);
+            }
+            return;
+        }
+        int passes = Integer.SIZE / DIGIT_BITS;
+        int[][] counts = new int[passes][RADIX];
+        for (int value : input) {
+            for (int pass = 0; pass < passes; ++pass) {
+                ++counts[pass][digit(value, pass, passes)];
+            }
+        }
+        int[] source = input;
+        int[] destination = new int[length];
+        for (int pass = 0; pass < passes; ++pass) {
+            int[] offsets = counts[pass];
+            if (offsets[digit(source[0], pass, passes)] == length) {
+                continue;
+            }
+            toOffsets(offsets, reversed);
+            for (int value : source) {
+                destination[offsets[digit(value, pass, passes)]++] = value;
+            }
+            int[] temp = source;
+            source = destination;
+            destination = temp;
+        }
+        if (source != input) {
+            System.arraycopy(source, 0, input, 0, length);
+        }
+    }
+
+    /**
+     * Sorts the given array using an LSD radix sort on 8-bit digits, as the
+     * int version does, in up to eight passes.
+     * This should modify the array in-place.
+     *
+     * @param input An array of longs.
+     * @param reversed If false, the array should be sorted ascending.
+     *                 Otherwise, it should be sorted descending.
+     * @requires input != null
+     */
+    static void radixSort(long[] input, boolean reversed) {
+        if (input == null) {
+            return;
+        }
+        int length = input.length;
+        if (length < RADIX_THRESHOLD) {
+            quickSort(input, 0, length - 1);
+            if (reversed) {
+                reverse(input);
+            }
+            return;
+        }
+        int passes = Long.SIZE / DIGIT_BITS;
+        int[][] counts = new int[passes][RADIX];
+        for (long value : input) {
+            for (int pass = 0; pass < passes; ++pass) {
+                ++counts[pass][digit(value, pass, passes)];
+            }
+        }
+        long[] source = input;
+        long[] destination = new long[length];
+        for (int pass = 0; pass < passes; ++pass) {
+            int[] offsets = counts[pass];
+            if (offsets[digit(source[0], pass, passes)] == length) {
+                continue;
+            }
+            toOffsets(offsets, reversed);
+            for (long value : source) {
+                destination[offsets[digit(value, pass, passes)]++] = value;
+            }
+            long[] temp = source;
+            source = destination;
+            destination = temp;
+        }
+        if (source != input) {
+            System.arraycopy(source, 0, input, 0, length);
+        }
+    }
+
+    /**
+     * Sorts the given array by an int key of each element, using the LSD
+     * radix sort of radixSort. The sort is stable in both directions.
+     * This should modify the array in-place.
+     *
+     * The keys are extracted once into an int array, which is sorted together
+     * with the elements, so no key is extracted or compared twice.
+     *
+     * @param input An array of objects.
+     * @param keyExtractor Returns the key to sort each element by.
+     * @param reversed If false, the array should be sorted by ascending key.
+     *                 Otherwise, it should be sorted by descending key.
+     * @requires input != null, keyExtractor != null
+     */
+    static <T> void sortByIntKey(T[] input, ToIntFunction<? super T> keyExtractor,
+                                 boolean reversed) {
+        if (input == null) {
+            return;
+        }
+        int length = input.length;
+        int[] keys = new int[length];
+        for (int i = 0; i < length; ++i) {
+            keys[i] = keyExtractor.applyAsInt(input[i]);
+        }
+        if (length < RADIX_THRESHOLD) {
+            // insertion sort, moving each element along with its key
+            for (int outer = 1; outer < length; ++outer) {
+                int key = keys[outer];
+                T value = input[outer];
+                int inner = outer;
+                while (inner > 0 && (reversed ? keys[inner - 1] < key
+                        : keys[inner - 1] > key)) {
+                    keys[inner] = keys[inner - 1];
+                    input[inner] = input[inner - 1];
+                    --inner;
+                }
+                keys[inner] = key;
+                input[inner] = value;
+            }
+            return;
+        }
+        int passes = Integer.SIZE / DIGIT_BITS;
+        int[][] counts = new int[passes][RADIX];
+        for (int key : keys) {
+            for (int pass = 0; pass < passes; ++pass) {
+                ++counts[pass][digit(key, pass, passes)];
+            }
+        }
+        int[] sourceKeys = keys;
+        int[] destinationKeys = new int[length];
+        Object[] source = input;
+        Object[] destination = new Object[length];
+        for (int pass = 0; pass < passes; ++pass) {
+            int[] offsets = counts[pass];
+            if (offsets[digit(sourceKeys[0], pass, passes)] == length) {
+                continue;
+            }
+            toOffsets(offsets, reversed);
+            for (int i = 0; i < length; ++i) {
+                int index = offsets[digit(sourceKeys[i], pass, passes)]++;
+                destinationKeys[index] = sourceKeys[i];
+                destination[index] = source[i];
+            }
+            int[] tempKeys = sourceKeys;
+            sourceKeys = destinationKeys;
+            destinationKeys = tempKeys;
+            Object[] temp = source;
+            source = destination;
+            destination = temp;
+        }
+        if (source != input) {
+            System.arraycopy(source, 0, input, 0, length);
+        }
+    }
+
+    /**
+     * Sorts the given array by a long key of each element, as sortByIntKey
+     * does, in up to eight radix passes.
+     * This should modify the array in-place.
+     *
+     * @param input An array of objects.
+     * @param keyExtractor Returns the key to sort each element by.
+     * @param reversed If false, the array should be sorted by ascending key.
+     *                 Otherwise, it should be sorted by descending key.
+     * @requires input != null, keyExtractor != null
+     */
+    static <T> void sortByLongKey(T[] input, ToLongFunction<? super T> keyExtractor,
+                                  boolean reversed) {
+        if (input == null) {
+            return;
+        }
+        int length = input.length;
+        long[] keys = new long[length];
+        for (int i = 0; i < length; ++i) {
+            keys[i] = keyExtractor.applyAsLong(input[i]);
+        }
+        if (length < RADIX_THRESHOLD) {
+            // insertion sort, moving each element along with its key
+            for (int outer = 1; outer < length; ++outer) {
+                long key = keys[outer];
+                T value = input[outer];
+                int inner = outer;
+                while (inner > 0 && (reversed ? keys[inner - 1] < key
+                        : keys[inner - 1] > key)) {
+                    keys[inner] = keys[inner - 1];
+                    input[inner] = input[inner - 1];
+                    --inner;
+                }
+                keys[inner] = key;
+                input[inner] = value;
+            }
+            return;
+        }
+        int passes = Long.SIZE / DIGIT_BITS;
+        int[][] counts = new int[passes][RADIX];
+        for (long key : keys) {
+            for (int pass = 0; pass < passes; ++pass) {
+                ++counts[pass][digit(key, pass, passes)];
+            }
+        }
+        long[] sourceKeys = keys;
+        long[] destinationKeys = new long[length];
+        Object[] source = input;
+        Object[] destination = new Object[length];
+        for (int pass = 0; pass < passes; ++pass) {
+            int[] offsets = counts[pass];
+            if (offsets[digit(sourceKeys[0], pass, passes)] == length) {
+                continue;
+            }
+            toOffsets(offsets, reversed);
+            for (int i = 0; i < length; ++i) {
+                int index = offsets[digit(sourceKeys[i], pass, passes)]++;
+                destinationKeys[index] = sourceKeys[i];
+                destination[index] = source[i];
+            }
+            long[] tempKeys = sourceKeys;
+            sourceKeys = destinationKeys;
+            destinationKeys = tempKeys;
+            Object[] temp = source;
+            source = destination;
+            destination = temp;
+        }
+        if (source != input) {
+            System.arraycopy(source, 0, input, 0, length);
+        }
+    }
+
+    /**
+     * Returns the digit of value examined by the given pass, with the sign
+     * bit flipped in the last pass.
+     * This is a helper function for radixSort.
+     */
+    private static int digit(long value, int pass, int passes) {
+        int digit = (int) (value >>> (pass * DIGIT_BITS)) & (RADIX - 1);
+        return (pass == passes - 1) ? digit ^ (RADIX >>> 1) : digit;
+    }
+
+    /**
+     * Replaces the counts of each digit with the index its first value is
+     * moved to, placing the largest digit first if reversed.
+     * This is a helper function for radixSort.
+     */
+    private static void toOffsets(int[] counts, boolean reversed) {
+        int total = 0;
+        for (int i = 0; i < RADIX; ++i) {
+            int digit = reversed ? RADIX - 1 - i : i;
+            int count = counts[digit];
+            counts[digit] = total;
+            total += count;
+        }
+    }
+
+    /**
+     * Sorts input[start..end] using the quick sort algorithm, as quickSort
+     * does for objects, without the heapsort fallback.
+     * This is a helper function for radixSort on small arrays.
      */
-    private static <T extends Comparable> void merge(T[] array, int start,
-                                                     int middle, int end) {
-        T[] tempArray = (T[])new Comparable[array.length];
-        // starting index of the right half of the array
-        int newStart = middle + 1;
-        int tempIndex = start;
-        int restoringIndex = start;
-        // fills the tempArray in ascending order using the array elements,
-        // until one of the half arrays is finished
-        while (start <= middle && newStart <= end) {
-            if (array[start].compareTo(array[newStart]) <= 0) {
-                tempArray[tempIndex++] = array[start++];
+    private static void quickSort(int[] input, int start, int end) {
+        while (end - start >= INSERTION_THRESHOLD) {
+            int middle = (start + end) >>> 1;
+            int pivot = Math.max(Math.min(input[start], input[middle]),
+                    Math.min(Math.max(input[start], input[middle]), input[end]));
+            int left = start - 1;
+            int right = end + 1;
+            while (true) {
+                do {
+                    ++left;
+                } while (input[left] < pivot);
+                do {
+                    --right;
+                } while (input[right] > pivot);
+                if (left >= right) {
+                    break;
+                }
+                int temp = input[left];
+                input[left] = input[right];
+                input[right] = temp;
+            }
+            if (right - start < end - right) {
+                quickSort(input, start, right);
+                start = right + 1;
             } else {
-                tempArray[tempIndex++] = array[newStart++];
+                quickSort(input, right + 1, end);
+                end = right;
             }
         }
-        // fills the tempArray using the rest array elements,
-        // only one while loop will be executed in the next two while loops.
-        while (start <= middle) {
-            tempArray[tempIndex++] = array[start++];
+        for (int outer = start + 1; outer <= end; ++outer) {
+            int temp = input[outer];
+            int inner = outer;
+            while (inner > start && input[inner - 1] > temp) {
+                input[inner] = input[inner - 1];
+                --inner;
+            }
+            input[inner] = temp;
         }
-        while (newStart <= end) {
-            tempArray[tempIndex++] = array[newStart++];
+    }
+
+    /**
+     * Sorts input[start..end] using the quick sort algorithm, as quickSort
+     * does for objects, without the heapsort fallback.
+     * This is a helper function for radixSort on small arrays.
+     */
+    private static void quickSort(long[] input, int start, int end) {
+        while (end - start >= INSERTION_THRESHOLD) {
+            int middle = (start + end) >>> 1;
+            long pivot = Math.max(Math.min(input[start], input[middle]),
+                    Math.min(Math.max(input[start], input[middle]), input[end]));
+            int left = start - 1;
+            int right = end + 1;
+            while (true) {
+                do {
+                    ++left;
+                } while (input[left] < pivot);
+                do {
+                    --right;
+                } while (input[right] > pivot);
+                if (left >= right) {
+                    break;
+                }
+                long temp = input[left];
+                input[left] = input[right];
+                input[right] = temp;
+            }
+            if (right - start < end - right) {
+                quickSort(input, start, right);
+                start = right + 1;
+            } else {
+                quickSort(input, right + 1, end);
+                end = right;
+            }
         }
-        // restores the given array from tempArray.
-        while (restoringIndex <= end) {
-            array[restoringIndex] = tempArray[restoringIndex++];
+        for (int outer = start + 1; outer <= end; ++outer) {
+            long temp = input[outer];
+            int inner = outer;
+            while (inner > start && input[inner - 1] > temp) {
+                input[inner] = input[inner - 1];
+                --inner;
+            }
+            input[inner] = temp;
+        }
+    }
+
+    /**
+     * Rearranges the given array in reversed order.
+     * This is a helper function.
+     *
+     * @param input An array of ints.
+     */
+    private static void reverse(int[] input) {
+        for (int i = 0, j = input.length - 1; i < j; ++i, --j) {
+            int temp = input[i];
+            input[i] = input[j];
+            input[j] = temp;
+        }
+    }
+
+    /**
+     * Rearranges the given array in reversed order.
+     * This is a helper function.
+     *
+     * @param input An array of longs.
+     */
+    private static void reverse(long[] input) {
+        for (int i = 0, j = input.length - 1; i < j; ++i, --j) {
+            long temp = input[i];
+            input[i] = input[j];
+            input[j] = temp;
         }
     }
 
@@ -166,8 +1301,12 @@ public class SortingAlgorithms {
      * Sorts the given array using the quick sort algorithm.
      * This should modify the array in-place.
      *
-     * You should use the value at the middle of the input  array(i.e. floor(n/2))
-     * as the pivot at each step.
+     * The pivot is the median of the first, middle and last values of each
+     * partition, so sorted and reversed inputs partition evenly. Partitions
+     * of at most INSERTION_THRESHOLD elements are insertion sorted, and a
+     * partition nested deeper than 2 * log2(n) levels is heapsorted instead,
+     * which bounds the time by O(n log n) for any input. Only the smaller side
+     * of each partition is sorted recursively, so the stack depth is O(log n).
      *
      * @param input An array of comparable objects.
      * @param reversed If false, the array should be sorted ascending.
@@ -175,13 +1314,29 @@ public class SortingAlgorithms {
      * @requires input != null
      */
     static <T extends Comparable> void quickSort(T[] input, boolean reversed) {
+        quickSort(input, naturalOrder(), reversed);
+    }
+
+    /**
+     * Sorts the given array using the quick sort algorithm of quickSort, in
+     * the order of the given comparator.
+     * This should modify the array in-place.
+     *
+     * @param input An array of objects.
+     * @param comparator The order to sort the array in.
+     * @param reversed If false, the array should be sorted in the order of
+     *                 comparator. Otherwise, it should be sorted in reverse.
+     * @requires input != null, comparator != null
+     */
+    static <T> void quickSort(T[] input, Comparator<? super T> comparator,
+                              boolean reversed) {
         if (input == null) {
             return;
         }
-        runQuickSort(input, 0, input.length - 1);
-        if (reversed) {
-            reverse(input);
-        }
+        int depthLimit = 2 * (31 - Integer.numberOfLeadingZeros(
+                Math.max(input.length, 1)));
+        runQuickSort(input, 0, input.length - 1, depthLimit,
+                order(comparator, reversed));
     }
 
     /**
@@ -191,37 +1346,367 @@ public class SortingAlgorithms {
      * @param input An array of comparable objects.
      * @param start The starting index of the given array.
      * @param end The ending index of the given array.
+     * @param depthLimit Number of partitioning levels left before falling
+     *                   back to heapsort.
+     * @param order The order to sort in.
      */
-    private static <T extends Comparable> void runQuickSort(T[] input, int start,
-                                                            int end) {
-        if (start >= end) {
+    private static <T> void runQuickSort(T[] input, int start, int end,
+            int depthLimit, Comparator<? super T> order) {
+        while (end - start >= INSERTION_THRESHOLD) {
+            if (depthLimit-- == 0) {
+                heapSort(input, start, end, order);
+                return;
+            }
+            int split = partition(input, start, end, order);
+            // recursively, sort the smaller side, then loop on the larger one
+            if (split - start < end - split) {
+                runQuickSort(input, start, split, depthLimit, order);
+                start = split + 1;
+            } else {
+                runQuickSort(input, split + 1, end, depthLimit, order);
+                end = split;
+            }
+        }
+        insertionSort(input, start, end, order);
+    }
+
+    /**
+     * Rearranges the given array so that input[k] holds the value it would
+     * hold if the array were sorted ascending, with no greater value before
+     * it and no smaller value after it, e.g. select(input, input.length / 2)
+     * finds a median. Uses introselect: the partitioning of quickSort, going
+     * into the side holding k only, with a heapsort fallback.
+     *
+     * time complexity O(n) expected, O(n log n) worst case
+     *
+     * @param input An array of comparable objects.
+     * @param k The index of the value to select.
+     * @return The value selected.
+     * @throws IllegalArgumentException if k < 0 or k >= input.length
+     * @requires input != null
+     */
+    static <T extends Comparable> T select(T[] input, int k)
+            throws IllegalArgumentException {
+        return select(input, k, naturalOrder());
+    }
+
+    /**
+     * Rearranges the given array so that input[k] holds the value it would
+     * hold if the array were sorted in the order of the given comparator, as
+     * select does.
+     *
+     * @param input An array of objects.
+     * @param k The index of the value to select.
+     * @param comparator The order to select in.
+     * @return The value selected.
+     * @throws IllegalArgumentException if k < 0 or k >= input.length
+     * @requires input != null, comparator != null
+     */
+    static <T> T select(T[] input, int k, Comparator<? super T> comparator)
+            throws IllegalArgumentException {
+        if (k < 0 || k >= input.length) {
+            throw new IllegalArgumentException();
+        }
+        int start = 0;
+        int end = input.length - 1;
+        int depthLimit = 2 * (31 - Integer.numberOfLeadingZeros(input.length));
+        while (end - start >= INSERTION_THRESHOLD) {
+            if (depthLimit-- == 0) {
+                heapSort(input, start, end, comparator);
+                return input[k];
+            }
+            int split = partition(input, start, end, comparator);
+            if (k <= split) {
+                end = split;
+            } else {
+                start = split + 1;
+            }
+        }
+        insertionSort(input, start, end, comparator);
+        return input[k];
+    }
+
+    /**
+     * Rearranges the given array so that input[0..k - 1] holds its k smallest
+     * values in ascending order. The order of the other values is unspecified.
+     *
+     * time complexity O(n + k log k) expected
+     *
+     * @param input An array of comparable objects.
+     * @param k The number of values to sort.
+     * @throws IllegalArgumentException if k < 0 or k > input.length
+     * @requires input != null
+     */
+    static <T extends Comparable> void partialSort(T[] input, int k)
+            throws IllegalArgumentException {
+        partialSort(input, k, naturalOrder());
+    }
+
+    /**
+     * Rearranges the given array so that input[0..k - 1] holds its first k
+     * values in the order of the given comparator, as partialSort does.
+     *
+     * @param input An array of objects.
+     * @param k The number of values to sort.
+     * @param comparator The order to sort in.
+     * @throws IllegalArgumentException if k < 0 or k > input.length
+     * @requires input != null, comparator != null
+     */
+    static <T> void partialSort(T[] input, int k, Comparator<? super T> comparator)
+            throws IllegalArgumentException {
+        if (k < 0 || k > input.length) {
+            throw new IllegalArgumentException();
+        }
+        if (k == 0) {
             return;
         }
-        int left = start; // indices
-        int right = end;
-        T pivot = input[start]; // choose a pivot value
-        // partition the array, value less than the pivot goes left part of the
-        // array, value greater than the pivot goes right part of the array
-        while (left < right) {
-            while (pivot.compareTo(input[right]) <= 0 && left < right) {
-                --right;
+        // the k - 1th value splits off the k smallest, which are then sorted
+        if (k < input.length) {
+            select(input, k - 1, comparator);
+        }
+        runQuickSort(input, 0, k - 1,
+                2 * (31 - Integer.numberOfLeadingZeros(k)), comparator);
+    }
+
+    /**
+     * Returns the k largest values of the given array in descending order,
+     * leaving the array unchanged. Keeps the largest values seen so far in a
+     * min-heap of k ints, so there is no boxing and no copy of the array.
+     *
+     * time complexity O(n log k), memory complexity O(k)
+     *
+     * @param input An array of ints.
+     * @param k The number of values to return.
+     * @return The k largest values, largest first.
+     * @throws IllegalArgumentException if k < 0 or k > input.length
+     * @requires input != null
+     */
+    static int[] topK(int[] input, int k) throws IllegalArgumentException {
+        if (k < 0 || k > input.length) {
+            throw new IllegalArgumentException();
+        }
+        int[] heap = Arrays.copyOf(input, k);
+        for (int node = k / 2 - 1; node >= 0; --node) {
+            downheap(heap, node, k);
+        }
+        for (int i = k; i < input.length; ++i) {
+            if (k > 0 && input[i] > heap[0]) {
+                heap[0] = input[i];
+                downheap(heap, 0, k);
+            }
+        }
+        // moves the smallest remaining value behind the shrinking heap
+        for (int last = k - 1; last > 0; --last) {
+            int temp = heap[0];
+            heap[0] = heap[last];
+            heap[last] = temp;
+            downheap(heap, 0, last);
+        }
+        return heap;
+    }
+
+    /**
+     * Returns the k largest values of the given array in descending order,
+     * leaving the array unchanged, as the int version of topK does.
+     *
+     * time complexity O(n log k), memory complexity O(k)
+     *
+     * @param input An array of longs.
+     * @param k The number of values to return.
+     * @return The k largest values, largest first.
+     * @throws IllegalArgumentException if k < 0 or k > input.length
+     * @requires input != null
+     */
+    static long[] topK(long[] input, int k) throws IllegalArgumentException {
+        if (k < 0 || k > input.length) {
+            throw new IllegalArgumentException();
+        }
+        long[] heap = Arrays.copyOf(input, k);
+        for (int node = k / 2 - 1; node >= 0; --node) {
+            downheap(heap, node, k);
+        }
+        for (int i = k; i < input.length; ++i) {
+            if (k > 0 && input[i] > heap[0]) {
+                heap[0] = input[i];
+                downheap(heap, 0, k);
+            }
+        }
+        for (int last = k - 1; last > 0; --last) {
+            long temp = heap[0];
+            heap[0] = heap[last];
+            heap[last] = temp;
+            downheap(heap, 0, last);
+        }
+        return heap;
+    }
+
+    /**
+     * Moves the value at the given node of a binary min-heap down until it is
+     * no greater than its children.
+     * This is a helper function for topK.
+     */
+    private static void downheap(int[] heap, int node, int size) {
+        int value = heap[node];
+        int child;
+        while ((child = 2 * node + 1) < size) {
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                ++child;
             }
-            while (pivot.compareTo(input[left]) >= 0 && left < right) {
+            if (value <= heap[child]) {
+                break;
+            }
+            heap[node] = heap[child];
+            node = child;
+        }
+        heap[node] = value;
+    }
+
+    /**
+     * Moves the value at the given node of a binary min-heap down until it is
+     * no greater than its children.
+     * This is a helper function for topK.
+     */
+    private static void downheap(long[] heap, int node, int size) {
+        long value = heap[node];
+        int child;
+        while ((child = 2 * node + 1) < size) {
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                ++child;
+            }
+            if (value <= heap[child]) {
+                break;
+            }
+            heap[node] = heap[child];
+            node = child;
+        }
+        heap[node] = value;
+    }
+
+    /**
+     * Partitions input[start..end] around the median of its first, middle and
+     * last values, such that no value of input[start..split] comes after the
+     * pivot in the given order and no value of input[split + 1..end] comes
+     * before it.
+     * This is a helper function for quickSort.
+     *
+     * @param input An array of comparable objects.
+     * @param start The starting index of the given array, less than end.
+     * @param end The ending index of the given array.
+     * @param order The order to sort in.
+     * @return The index split, with start <= split < end.
+     */
+    private static <T> int partition(T[] input, int start, int end,
+            Comparator<? super T> order) {
+        int middle = (start + end) >>> 1;
+        // sorts the three samples, leaving the median in the middle
+        if (order.compare(input[middle], input[start]) < 0) {
+            swap(input, middle, start);
+        }
+        if (order.compare(input[end], input[middle]) < 0) {
+            swap(input, end, middle);
+            if (order.compare(input[middle], input[start]) < 0) {
+                swap(input, middle, start);
+            }
+        }
+        T pivot = input[middle];
+        int left = start - 1; // indices
+        int right = end + 1;
+        // both scans stop at values equal to the pivot, so runs of equal
+        // values are split evenly
+        while (true) {
+            do {
                 ++left;
+            } while (order.compare(input[left], pivot) < 0);
+            do {
+                --right;
+            } while (order.compare(input[right], pivot) > 0);
+            if (left >= right) {
+                return right;
             }
-            if (left < right) {
-                T swap;
-                swap = input[left];
-                input[left] = input[right];
-                input[right] = swap;
+            swap(input, left, right);
+        }
+    }
+
+    /**
+     * Sorts input[start..end] using the insertion sort algorithm.
+     * This is a helper function for quickSort.
+     *
+     * @param input An array of comparable objects.
+     * @param start The starting index of the given array.
+     * @param end The ending index of the given array.
+     * @param order The order to sort in.
+     */
+    private static <T> void insertionSort(T[] input, int start, int end,
+            Comparator<? super T> order) {
+        for (int outer = start + 1; outer <= end; ++outer) {
+            T temp = input[outer];
+            int inner = outer;
+            while (inner > start && order.compare(input[inner - 1], temp) > 0) {
+                input[inner] = input[inner - 1];
+                --inner;
             }
+            input[inner] = temp;
+        }
+    }
+
+    /**
+     * Sorts input[start..end] using the heap sort algorithm, with a binary
+     * heap rooted at start whose root is the last value in the given order.
+     * This is a helper function for quickSort.
+     *
+     * @param input An array of comparable objects.
+     * @param start The starting index of the given array.
+     * @param end The ending index of the given array.
+     * @param order The order to sort in.
+     */
+    private static <T> void heapSort(T[] input, int start, int end,
+            Comparator<? super T> order) {
+        int size = end - start + 1;
+        for (int node = size / 2 - 1; node >= 0; --node) {
+            downheap(input, start, node, size, order);
         }
-        // returns the pivot to it's proper position
-        input[start] = input[left];
-        input[left] = pivot;
-        // recursively, sort the values less than the pivot
-        runQuickSort(input, start, right - 1);
-        // recursively, sort the values greater than the pivot
-        runQuickSort(input, right + 1, end);
+        for (int last = size - 1; last > 0; --last) {
+            // moves the maximum behind the shrinking heap
+            swap(input, start, start + last);
+            downheap(input, start, 0, last, order);
+        }
+    }
+
+    /**
+     * Moves the value at the given node of a binary heap down until it does
+     * not come before its children in the given order.
+     * This is a helper function for heapSort.
+     *
+     * @param input An array of comparable objects.
+     * @param offset The index of the root of the heap.
+     * @param node The node to move down, counted from the root.
+     * @param size The number of nodes in the heap.
+     * @param order The order to sort in.
+     */
+    private static <T> void downheap(T[] input, int offset, int node, int size,
+            Comparator<? super T> order) {
+        T value = input[offset + node];
+        int child;
+        while ((child = 2 * node + 1) < size) {
+            if (child + 1 < size && order.compare(input[offset + child],
+                    input[offset + child + 1]) < 0) {
+                ++child;
+            }
+            if (order.compare(value, input[offset + child]) >= 0) {
+                break;
+            }
+            input[offset + node] = input[offset + child];
+            node = child;
+        }
+        input[offset + node] = value;
+    }
+
+    /**
+     * Swaps two values of the given array.
+     */
+    private static <T> void swap(T[] input, int x, int y) {
+        T temp = input[x];
+        input[x] = input[y];
+        input[y] = temp;
     }
 }
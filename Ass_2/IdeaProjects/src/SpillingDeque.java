@@ -0,0 +1,407 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A deque with unlimited capacity whose backlog is bounded by disk rather than
+ * by heap. The leftmost and rightmost elements are kept in two in-memory hot
+ * deques; whenever one of them grows past two segments, a segment of elements
+ * next to the middle is serialized into a memory-mapped segment file. Segments
+ * are loaded back on demand once the hot deque on their side runs empty.
+ *
+ * The deque must be closed to delete the segment files still on disk.
+ *
+ * @param <T> Element stored inside this deque.
+ */
+public class SpillingDeque<T> implements SimpleDeque<T>, AutoCloseable {
+    /**
+     * Converts elements to and from the bytes stored in segment files.
+     *
+     * @param <T> Element to be converted.
+     */
+    public interface Serializer<T> {
+        /**
+         * Returns the serialized form of the given element.
+         *
+         * @param element element to serialize
+         * @return the bytes representing element
+         */
+        byte[] serialize(T element);
+
+        /**
+         * Returns the element represented by the given bytes.
+         *
+         * @param bytes bytes produced by serialize
+         * @return the element represented by bytes
+         */
+        T deserialize(byte[] bytes);
+    }
+
+    /**
+     * A run of spilled elements stored in a segment file.
+     */
+    private static class Segment {
+        // file holding the elements
+        final Path file;
+        // number of elements in the file
+        final int count;
+
+        Segment(Path file, int count) {
+            this.file = file;
+            this.count = count;
+        }
+    }
+
+    // leftmost elements, kept in memory
+    private final SimpleArrayDeque<T> head;
+    // rightmost elements, kept in memory
+    private final SimpleArrayDeque<T> tail;
+    // spilled segments between head and tail, in left to right sequence
+    private final SimpleLinkedDeque<Segment> middle = new SimpleLinkedDeque<>();
+    // number of elements in all spilled segments
+    private int spilled = 0;
+    // number of elements per segment file
+    private final int segmentSize;
+    // directory holding the segment files
+    private final Path directory;
+    private final Serializer<T> serializer;
+    // buffer moving one segment between a hot deque and a segment file
+    private final T[] scratch;
+
+    /**
+     * Constructs a new empty spilling deque.
+     *
+     * @param directory directory in which segment files are created
+     * @param segmentSize number of elements per segment file
+     * @param serializer converts elements to and from bytes
+     * @throws IllegalArgumentException if segmentSize <= 0
+     * @requires directory exists and is writable, serializer != null
+     */
+    @SuppressWarnings("unchecked")
+    public SpillingDeque(Path directory, int segmentSize, Serializer<T> serializer)
+            throws IllegalArgumentException {
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.serializer = serializer;
+        this.head = new SimpleArrayDeque<>(2 * segmentSize);
+        this.tail = new SimpleArrayDeque<>(2 * segmentSize);
+        this.scratch = (T[]) new Object[segmentSize];
+    }
+
+    /**
+     * Returns the number of elements currently stored on disk.
+     * @return Number of spilled elements.
+     */
+    public int spilledSize() {
+        return spilled;
+    }
+
+    @Override
+    // time complexity O(1), memory complexity O(1)
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    // time complexity O(1), memory complexity O(1)
+    public boolean isFull() {
+        return false;
+    }
+
+    @Override
+    // time complexity O(1), memory complexity O(1)
+    public int size() {
+        return head.size() + spilled + tail.size();
+    }
+
+    @Override
+    // time complexity O(1) amortised, memory complexity O(1)
+    public void pushLeft(T e) throws RuntimeException {
+        if (head.size() == 2 * segmentSize) {
+            // the rightmost elements of head sit next to the middle segments
+            int count = head.popRight(scratch, segmentSize);
+            middle.pushLeft(writeSegment(count));
+        }
+        head.pushLeft(e);
+    }
+
+    @Override
+    // time complexity O(1) amortised, memory complexity O(1)
+    public void pushRight(T e) throws RuntimeException {
+        if (tail.size() == 2 * segmentSize) {
+            // the leftmost elements of tail sit next to the middle segments
+            int count = tail.popLeft(scratch, segmentSize);
+            middle.pushRight(writeSegment(count));
+        }
+        tail.pushRight(e);
+    }
+
+    @Override
+    // time complexity O(1) amortised, memory complexity O(1)
+    public T peekLeft() throws NoSuchElementException {
+        return leftSource().peekLeft();
+    }
+
+    @Override
+    // time complexity O(1) amortised, memory complexity O(1)
+    public T peekRight() throws NoSuchElementException {
+        return rightSource().peekRight();
+    }
+
+    @Override
+    // time complexity O(1) amortised, memory complexity O(1)
+    public T popLeft() throws NoSuchElementException {
+        return leftSource().popLeft();
+    }
+
+    @Override
+    // time complexity O(1) amortised, memory complexity O(1)
+    public T popRight() throws NoSuchElementException {
+        return rightSource().popRight();
+    }
+
+    @Override
+    // time complexity O(1), memory complexity O(1)
+    public Iterator<T> iterator() {
+        return new SpillingIterator(false);
+    }
+
+    @Override
+    // time complexity O(1), memory complexity O(1)
+    public Iterator<T> reverseIterator() {
+        return new SpillingIterator(true);
+    }
+
+    /**
+     * Deletes the segment files still on disk and empties the deque.
+     *
+     * @throws UncheckedIOException if a segment file cannot be deleted
+     */
+    @Override
+    public void close() {
+        while (!middle.isEmpty()) {
+            Segment segment = middle.popLeft();
+            spilled -= segment.count;
+            delete(segment.file);
+        }
+        while (!head.isEmpty()) {
+            head.popLeft(scratch, scratch.length);
+        }
+        while (!tail.isEmpty()) {
+            tail.popLeft(scratch, scratch.length);
+        }
+    }
+
+    /**
+     * Returns the hot deque holding the leftmost element, reloading the
+     * leftmost segment into head if head has run empty.
+     *
+     * @return the deque to peek or pop the leftmost element from
+     * time complexity O(1) amortised, memory complexity O(1)
+     */
+    private SimpleArrayDeque<T> leftSource() {
+        if (head.isEmpty() && !middle.isEmpty()) {
+            int count = readSegment(middle.popLeft(), true);
+            head.pushAllRight(scratch, 0, count);
+            // drops the references the copy left behind
+            Arrays.fill(scratch, 0, count, null);
+        }
+        return head.isEmpty() ? tail : head;
+    }
+
+    /**
+     * Returns the hot deque holding the rightmost element, reloading the
+     * rightmost segment into tail if tail has run empty.
+     *
+     * @return the deque to peek or pop the rightmost element from
+     * time complexity O(1) amortised, memory complexity O(1)
+     */
+    private SimpleArrayDeque<T> rightSource() {
+        if (tail.isEmpty() && !middle.isEmpty()) {
+            int count = readSegment(middle.popRight(), true);
+            tail.pushAllRight(scratch, 0, count);
+            // drops the references the copy left behind
+            Arrays.fill(scratch, 0, count, null);
+        }
+        return tail.isEmpty() ? head : tail;
+    }
+
+    /**
+     * Writes scratch[0..count) to a new segment file.
+     * Each element is stored as its length followed by its bytes.
+     *
+     * @param count number of elements to write
+     * @return the segment describing the new file
+     * @throws UncheckedIOException if the file cannot be written
+     * time complexity O(count), memory complexity O(count)
+     */
+    private Segment writeSegment(int count) {
+        byte[][] encoded = new byte[count][];
+        long bytes = 0;
+        for (int i = 0; i < count; ++i) {
+            encoded[i] = serializer.serialize(scratch[i]);
+            scratch[i] = null;
+            bytes += Integer.BYTES + encoded[i].length;
+        }
+        try {
+            Path file = Files.createTempFile(directory, "segment", ".spill");
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+                for (byte[] element : encoded) {
+                    buffer.putInt(element.length);
+                    buffer.put(element);
+                }
+            }
+            spilled += count;
+            return new Segment(file, count);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads the elements of a segment file into scratch.
+     *
+     * @param segment the segment to read
+     * @param consume if true the file is deleted and no longer counted as spilled
+     * @return number of elements read
+     * @throws UncheckedIOException if the file cannot be read
+     * time complexity O(count), memory complexity O(count)
+     */
+    private int readSegment(Segment segment, boolean consume) {
+        readSegment(segment, scratch);
+        if (consume) {
+            spilled -= segment.count;
+            delete(segment.file);
+        }
+        return segment.count;
+    }
+
+    /**
+     * Reads the elements of a segment file into the given array.
+     *
+     * @param segment the segment to read
+     * @param dst array of at least segment.count elements
+     * @throws UncheckedIOException if the file cannot be read
+     * time complexity O(count), memory complexity O(count)
+     */
+    private void readSegment(Segment segment, T[] dst) {
+        try (FileChannel channel = FileChannel.open(segment.file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    channel.size());
+            for (int i = 0; i < segment.count; ++i) {
+                byte[] element = new byte[buffer.getInt()];
+                buffer.get(element);
+                dst[i] = serializer.deserialize(element);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Deletes the given segment file.
+     *
+     * @param file the file to delete
+     * @throws UncheckedIOException if the file cannot be deleted
+     */
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * An implementation class of Iterator.
+     * Walks head, then every spilled segment, then tail, or the reverse.
+     * Spilled segments are read one at a time and left on disk.
+     */
+    private class SpillingIterator implements Iterator<T> {
+        // true if the iterator runs from right to left
+        private final boolean descending;
+        // iterator over the hot deque or segment currently being visited
+        private Iterator<T> current;
+        // iterator over the spilled segments still to be visited
+        private final Iterator<Segment> segments;
+        // true once the far hot deque has been handed to current
+        private boolean finished = false;
+        // elements of the segment currently being visited
+        private final T[] buffer;
+
+        @SuppressWarnings("unchecked")
+        SpillingIterator(boolean descending) {
+            this.descending = descending;
+            this.current = descending ? tail.reverseIterator() : head.iterator();
+            this.segments = descending ? middle.reverseIterator() : middle.iterator();
+            this.buffer = (T[]) new Object[segmentSize];
+        }
+
+        @Override
+        // time complexity O(1) amortised, memory complexity O(1)
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                if (segments.hasNext()) {
+                    Segment segment = segments.next();
+                    readSegment(segment, buffer);
+                    current = new ArrayIterator(segment.count);
+                } else if (!finished) {
+                    current = descending ? head.reverseIterator() : tail.iterator();
+                    finished = true;
+                } else {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        // time complexity O(1) amortised, memory complexity O(1)
+        public T next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            return current.next();
+        }
+
+        /**
+         * Iterates over the first count elements of buffer in the direction
+         * of the enclosing iterator.
+         */
+        private class ArrayIterator implements Iterator<T> {
+            // number of elements left to return
+            private int remaining;
+            // number of elements in the buffer
+            private final int count;
+
+            ArrayIterator(int count) {
+                this.count = count;
+                this.remaining = count;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public T next() {
+                if (remaining == 0)
+                    throw new NoSuchElementException();
+                remaining--;
+                return descending ? buffer[remaining] : buffer[count - remaining - 1];
+            }
+        }
+    }
+}
@@ -0,0 +1,207 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A bounded wait-free queue handing elements from exactly one producer thread
+ * to exactly one consumer thread.
+ *
+ * The producer pushes at the right with offer() and the consumer pops from the
+ * left with poll(). Elements live in a power-of-two ring addressed by masking,
+ * as in SimpleArrayDeque. The indices are published with release stores and
+ * read with acquire loads, and each side keeps a cached copy of the other
+ * side's index so it only touches the other cache line when the cached copy
+ * says the ring is full or empty. The indices live in a padded object of
+ * their own, so the producer's and the consumer's writes never share a cache
+ * line with each other or with the ring.
+ *
+ * @param <T> Element stored inside this queue.
+ */
+public class SpscRingQueue<T> {
+    private static final VarHandle PRODUCER_INDEX;
+    private static final VarHandle CONSUMER_INDEX;
+    private static final VarHandle ELEMENTS = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            PRODUCER_INDEX = lookup.findVarHandle(ProducerFields.class,
+                    "producerIndex", long.class);
+            CONSUMER_INDEX = lookup.findVarHandle(ConsumerFields.class,
+                    "consumerIndex", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    // The array in which the elements of the queue are stored.
+    private final Object[] elements;
+    // elements.length - 1, used to mask an index into the ring
+    private final int mask;
+    // the producer and consumer indices
+    private final Indices indices = new Indices();
+
+    /**
+     * Cache line padding in front of the consumer index.
+     * Superclass fields are laid out before subclass fields, so the padding
+     * classes keep the two indices at least one cache line apart. The queue
+     * cannot extend them itself, as a class may not extend its own member.
+     */
+    private abstract static class Pad0 {
+        long p00, p01, p02, p03, p04, p05, p06, p07;
+        long p10, p11, p12, p13, p14, p15, p16, p17;
+    }
+
+    /**
+     * Fields written by the consumer thread only.
+     */
+    private abstract static class ConsumerFields extends Pad0 {
+        // index of the next element to poll, only ever grows
+        volatile long consumerIndex;
+        // the consumer's last view of producerIndex
+        long cachedProducerIndex;
+    }
+
+    /**
+     * Cache line padding between the consumer and producer fields.
+     */
+    private abstract static class Pad1 extends ConsumerFields {
+        long p20, p21, p22, p23, p24, p25, p26, p27;
+        long p30, p31, p32, p33, p34, p35, p36, p37;
+    }
+
+    /**
+     * Fields written by the producer thread only.
+     */
+    private abstract static class ProducerFields extends Pad1 {
+        // index at which the next element is offered, only ever grows
+        volatile long producerIndex;
+        // the producer's last view of consumerIndex
+        long cachedConsumerIndex;
+    }
+
+    /**
+     * Cache line padding behind the producer fields.
+     */
+    private static final class Indices extends ProducerFields {
+        long p40, p41, p42, p43, p44, p45, p46, p47;
+        long p50, p51, p52, p53, p54, p55, p56, p57;
+    }
+
+    /**
+     * Constructs a new queue able to hold at least the given number of elements.
+     * The capacity is rounded up to a power of two.
+     *
+     * @param capacity the minimum capacity
+     * @throws IllegalArgumentException if capacity <= 0 or capacity > 2^30
+     */
+    public SpscRingQueue(int capacity) throws IllegalArgumentException {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException();
+        }
+        int length = Integer.highestOneBit(capacity);
+        if (length < capacity) {
+            length <<= 1;
+        }
+        elements = new Object[length];
+        mask = length - 1;
+    }
+
+    /**
+     * Returns the maximum number of elements this queue can hold.
+     * @return capacity of the ring
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Pushes an element to the right of the queue. Producer thread only.
+     *
+     * @param e element to push
+     * @return true if the element was added, false if the queue is full
+     * @throws NullPointerException if e is null
+     * time complexity O(1), memory complexity O(1)
+     */
+    public boolean offer(T e) {
+        if (e == null) {
+            throw new NullPointerException();
+        }
+        final long index = (long) PRODUCER_INDEX.getOpaque(indices);
+        final long wrapPoint = index - (mask + 1);
+        if (indices.cachedConsumerIndex <= wrapPoint) {
+            indices.cachedConsumerIndex = (long) CONSUMER_INDEX.getAcquire(indices);
+            if (indices.cachedConsumerIndex <= wrapPoint) {
+                return false;
+            }
+        }
+        ELEMENTS.setRelease(elements, (int) index & mask, e);
+        PRODUCER_INDEX.setRelease(indices, index + 1);
+        return true;
+    }
+
+    /**
+     * Removes and returns the element at the left of the queue. Consumer thread only.
+     *
+     * @return the leftmost element, or null if the queue is empty
+     * time complexity O(1), memory complexity O(1)
+     */
+    public T poll() {
+        final long index = (long) CONSUMER_INDEX.getOpaque(indices);
+        if (index >= indices.cachedProducerIndex) {
+            indices.cachedProducerIndex = (long) PRODUCER_INDEX.getAcquire(indices);
+            if (index >= indices.cachedProducerIndex) {
+                return null;
+            }
+        }
+        final int offset = (int) index & mask;
+        @SuppressWarnings("unchecked")
+        T element = (T) ELEMENTS.getAcquire(elements, offset);
+        ELEMENTS.setRelease(elements, offset, null);
+        CONSUMER_INDEX.setRelease(indices, index + 1);
+        return element;
+    }
+
+    /**
+     * Returns the element at the left of the queue, but does not remove it.
+     * Consumer thread only.
+     *
+     * @return the leftmost element, or null if the queue is empty
+     * time complexity O(1), memory complexity O(1)
+     */
+    public T peek() {
+        final long index = (long) CONSUMER_INDEX.getOpaque(indices);
+        if (index >= indices.cachedProducerIndex) {
+            indices.cachedProducerIndex = (long) PRODUCER_INDEX.getAcquire(indices);
+            if (index >= indices.cachedProducerIndex) {
+                return null;
+            }
+        }
+        @SuppressWarnings("unchecked")
+        T element = (T) ELEMENTS.getAcquire(elements, (int) index & mask);
+        return element;
+    }
+
+    /**
+     * Returns the number of elements currently stored in the queue.
+     * The result is only a snapshot when called while the other thread is active.
+     *
+     * @return Number of elements.
+     * time complexity O(1), memory complexity O(1)
+     */
+    public int size() {
+        // reads the consumer index first so the difference is never negative
+        long consumer = (long) CONSUMER_INDEX.getAcquire(indices);
+        long producer = (long) PRODUCER_INDEX.getAcquire(indices);
+        return (int) Math.min(producer - consumer, mask + 1);
+    }
+
+    // time complexity O(1), memory complexity O(1)
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // time complexity O(1), memory complexity O(1)
+    public boolean isFull() {
+        return size() == mask + 1;
+    }
+}
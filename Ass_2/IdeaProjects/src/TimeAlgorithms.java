@@ -2,6 +2,11 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Random;
 
+/**
+ * Quick single-run timings of the sorts. Each number comes from one cold run,
+ * so for comparable results use the JMH benchmarks of
+ * jmh/src/benchmarks/SortingBenchmark, built by jmh/pom.xml.
+ */
 public class TimeAlgorithms {
     private Integer[] unsorted;
     private Integer[] ascending;
@@ -0,0 +1,141 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A SimpleDeque whose contents are held in a PersistentDeque. Every update
+ * replaces the current version, so snapshot() is O(1) and the snapshots it
+ * hands out never change, however this deque is updated later. A snapshot can
+ * be popped from any number of times, each pop amortised O(1). Readers of a
+ * snapshot need no locks; updates to this deque itself are not thread-safe.
+ *
+ * @param <T> Element stored inside this deque.
+ */
+public class VersionedDeque<T> implements SimpleDeque<T> {
+    // the current version, volatile so snapshots can be taken from any thread
+    private volatile PersistentDeque<T> current;
+    // maximum number of elements, -1 represents unlimited capacity
+    private int capacity = -1;
+
+    /**
+     * Constructs a new versioned deque with unlimited capacity.
+     */
+    public VersionedDeque() {
+        current = PersistentDeque.empty();
+    }
+
+    /**
+     * Constructs a new versioned deque with limited capacity.
+     *
+     * @param capacity the capacity
+     * @throws IllegalArgumentException if capacity <= 0
+     */
+    public VersionedDeque(int capacity) throws IllegalArgumentException {
+        this();
+        if (capacity <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Constructs a new versioned deque with unlimited capacity, starting from
+     * the given version. The version itself is never changed.
+     *
+     * @param initial the version to start from
+     * @requires initial != null
+     */
+    public VersionedDeque(PersistentDeque<T> initial) {
+        current = initial;
+    }
+
+    /**
+     * Returns the current contents of the deque as an immutable version.
+     *
+     * @return the current version
+     * time complexity O(1), memory complexity O(1)
+     */
+    public PersistentDeque<T> snapshot() {
+        return current;
+    }
+
+    @Override
+    // time complexity O(1), memory complexity O(1)
+    public boolean isEmpty() {
+        return current.isEmpty();
+    }
+
+    @Override
+    // time complexity O(1), memory complexity O(1)
+    public boolean isFull() {
+        if (capacity == -1) {
+            return false;
+        }
+        return current.size() >= capacity;
+    }
+
+    @Override
+    // time complexity O(1), memory complexity O(1)
+    public int size() {
+        return current.size();
+    }
+
+    @Override
+    // time complexity O(1), memory complexity O(1)
+    public void pushLeft(T e) throws RuntimeException {
+        if (isFull()) {
+            throw new RuntimeException();
+        }
+        current = current.pushLeft(e);
+    }
+
+    @Override
+    // time complexity O(1), memory complexity O(1)
+    public void pushRight(T e) throws RuntimeException {
+        if (isFull()) {
+            throw new RuntimeException();
+        }
+        current = current.pushRight(e);
+    }
+
+    @Override
+    // time complexity O(1), memory complexity O(1)
+    public T peekLeft() throws NoSuchElementException {
+        return current.peekLeft();
+    }
+
+    @Override
+    // time complexity O(1), memory complexity O(1)
+    public T peekRight() throws NoSuchElementException {
+        return current.peekRight();
+    }
+
+    @Override
+    // time complexity O(1) amortised, memory complexity O(1) amortised
+    public T popLeft() throws NoSuchElementException {
+        final PersistentDeque<T> version = current;
+        final T element = version.peekLeft();
+        current = version.popLeft();
+        return element;
+    }
+
+    @Override
+    // time complexity O(1) amortised, memory complexity O(1) amortised
+    public T popRight() throws NoSuchElementException {
+        final PersistentDeque<T> version = current;
+        final T element = version.peekRight();
+        current = version.popRight();
+        return element;
+    }
+
+    @Override
+    // time complexity O(n), memory complexity O(n)
+    public Iterator<T> iterator() {
+        return current.iterator();
+    }
+
+    @Override
+    // time complexity O(n), memory complexity O(n)
+    public Iterator<T> reverseIterator() {
+        return current.reverseIterator();
+    }
+}
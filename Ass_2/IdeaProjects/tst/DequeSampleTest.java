@@ -1,9 +1,20 @@
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Random;
+import java.util.Spliterator;
+import java.util.concurrent.Flow;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 import static org.junit.Assert.*;
 
@@ -366,4 +377,677 @@ public class DequeSampleTest {
 
         assertArrayEquals(arr, actual);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testReverseSwapsEndsReversibleDeque() {
+        ReversibleDeque<Integer> deque = new ReversibleDeque<>(emptyDeque);
+        for (int i = 1; i <= 5; i++) {
+            deque.pushRight(i);
+        }
+
+        deque.reverse();
+        deque.pushRight(0);
+        assertEquals(Integer.valueOf(5), deque.peekLeft());
+        assertEquals(Integer.valueOf(0), deque.popRight());
+        assertEquals(Integer.valueOf(1), deque.popRight());
+
+        Iterator<Integer> iter = deque.iterator();
+        Integer[] actual = new Integer[4];
+        int i = 0;
+        while (iter.hasNext()) {
+            actual[i++] = iter.next();
+        }
+        assertArrayEquals(new Integer[]{5, 4, 3, 2}, actual);
+    }
+
+    @Test
+    public void testReverseArrayDeque() {
+        ReversibleArrayDeque<Integer> deque = new ReversibleArrayDeque<>(20);
+        for (int i = 0; i < 20; i++) {
+            deque.pushLeft(i);
+        }
+        assertTrue(deque.isFull());
+
+        deque.reverse();
+        Iterator<Integer> iter = deque.iterator();
+        for (int i = 0; i < 20; i++) {
+            assertEquals(Integer.valueOf(i), iter.next());
+        }
+        assertFalse(iter.hasNext());
+        assertEquals(Integer.valueOf(19), deque.popRight());
+        assertEquals(Integer.valueOf(0), deque.popLeft());
+        assertEquals(18, deque.size());
+    }
+
+    @Test
+    public void bulkPushPopArrayDeque() {
+        SimpleArrayDeque<Integer> deque = new SimpleArrayDeque<>(100);
+        Integer[] src = new Integer[20];
+        for (int i = 0; i < src.length; i++) {
+            src[i] = i;
+        }
+        // wraps the ring before the bulk operations
+        for (int i = 0; i < 5; i++) {
+            deque.pushLeft(-1);
+        }
+        deque.pushAllRight(src, 10, 10);
+        deque.pushAllLeft(src, 0, 10);
+        assertEquals(25, deque.size());
+
+        Integer[] dst = new Integer[25];
+        assertEquals(10, deque.popLeft(dst, 10));
+        assertArrayEquals(Arrays.copyOfRange(src, 0, 10), Arrays.copyOf(dst, 10));
+        assertEquals(10, deque.popRight(dst, 10));
+        assertArrayEquals(Arrays.copyOfRange(src, 10, 20), Arrays.copyOf(dst, 10));
+        assertEquals(5, deque.popLeft(dst, 25));
+        assertTrue(deque.isEmpty());
+    }
+
+    @Test
+    public void bulkPushPopLinkedDeque() {
+        SimpleLinkedDeque<Integer> deque = new SimpleLinkedDeque<>(20);
+        Integer[] src = new Integer[]{1, 2, 3, 4, 5};
+        deque.pushAllRight(src, 0, 5);
+        deque.pushAllLeft(src, 2, 3);
+        Integer[] dst = new Integer[8];
+        assertEquals(8, deque.popLeft(dst, 8));
+        assertArrayEquals(new Integer[]{3, 4, 5, 1, 2, 3, 4, 5}, dst);
+        assertTrue(deque.isEmpty());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void bulkPushLinkedDequeFull() {
+        SimpleLinkedDeque<Integer> deque = new SimpleLinkedDeque<>(3);
+        deque.pushAllRight(new Integer[]{1, 2, 3, 4}, 0, 4);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void reversibleArrayDequeCapacityTooBig() {
+        new ReversibleArrayDeque<Integer>(1 << 30);
+    }
+
+    @Test
+    public void bulkPushDefaultFullLeavesDequeUnchanged() {
+        ReversibleArrayDeque<Integer> deque = new ReversibleArrayDeque<>(4);
+        deque.pushRight(0);
+        Integer[] src = new Integer[]{1, 2, 3, 4};
+        for (boolean right : new boolean[]{true, false}) {
+            try {
+                if (right) {
+                    deque.pushAllRight(src, 0, 4);
+                } else {
+                    deque.pushAllLeft(src, 0, 4);
+                }
+                fail();
+            } catch (RuntimeException e) {
+                assertEquals(1, deque.size());
+                assertEquals(0, (int) deque.peekLeft());
+                assertEquals(0, (int) deque.peekRight());
+            }
+        }
+    }
+
+    @Test
+    public void offHeapRecordDequePushPop() {
+        OffHeapRecordDeque deque = new OffHeapRecordDeque(8, 3);
+        ByteBuffer record = ByteBuffer.allocate(8);
+        for (long i = 1; i <= 3; i++) {
+            record.clear();
+            record.putLong(0, i);
+            deque.pushLeft(record);
+        }
+        assertTrue(deque.isFull());
+
+        record.clear();
+        deque.popRight(record);
+        assertEquals(1L, record.getLong(0));
+        record.clear();
+        deque.popLeft(record);
+        assertEquals(3L, record.getLong(0));
+        assertEquals(1, deque.size());
+    }
+
+    @Test
+    public void offHeapRecordDequeMappedWritesFile() throws IOException {
+        Path file = Files.createTempFile("records", ".bin");
+        try {
+            OffHeapRecordDeque deque = OffHeapRecordDeque.mapped(file, 8, 3);
+            ByteBuffer record = ByteBuffer.allocate(8);
+            for (long i = 1; i <= 3; i++) {
+                record.clear();
+                record.putLong(0, i);
+                deque.pushRight(record);
+            }
+            deque.force();
+
+            // the records sit in the file in ring order
+            ByteBuffer contents = ByteBuffer.wrap(Files.readAllBytes(file));
+            assertEquals(24, contents.capacity());
+            for (int i = 0; i < 3; i++) {
+                assertEquals(i + 1L, contents.getLong(i * 8));
+            }
+
+            record.clear();
+            deque.popLeft(record);
+            assertEquals(1L, record.getLong(0));
+            record.clear();
+            deque.popRight(record);
+            assertEquals(3L, record.getLong(0));
+            assertEquals(1, deque.size());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void offHeapRecordDequeFull() {
+        OffHeapRecordDeque deque = new OffHeapRecordDeque(4, 1);
+        deque.pushRight(ByteBuffer.allocate(4));
+        deque.pushRight(ByteBuffer.allocate(4));
+    }
+
+    @Test
+    public void spillingDequeKeepsOrder() throws IOException {
+        Path directory = Files.createTempDirectory("spill");
+        SpillingDeque.Serializer<Integer> serializer = new SpillingDeque.Serializer<>() {
+            @Override
+            public byte[] serialize(Integer element) {
+                return ByteBuffer.allocate(4).putInt(element).array();
+            }
+
+            @Override
+            public Integer deserialize(byte[] bytes) {
+                return ByteBuffer.wrap(bytes).getInt();
+            }
+        };
+        try (SpillingDeque<Integer> deque = new SpillingDeque<>(directory, 4, serializer)) {
+            for (int i = 0; i < 50; i++) {
+                deque.pushRight(i);
+                deque.pushLeft(-i - 1);
+            }
+            assertEquals(100, deque.size());
+            assertTrue(deque.spilledSize() > 0);
+
+            Iterator<Integer> iter = deque.iterator();
+            for (int i = -50; i < 50; i++) {
+                assertEquals(Integer.valueOf(i), iter.next());
+            }
+            assertFalse(iter.hasNext());
+            assertEquals(Integer.valueOf(49), deque.reverseIterator().next());
+
+            for (int i = -50; i < 0; i++) {
+                assertEquals(Integer.valueOf(i), deque.popLeft());
+            }
+            for (int i = 49; i >= 0; i--) {
+                assertEquals(Integer.valueOf(i), deque.popRight());
+            }
+            assertTrue(deque.isEmpty());
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void spscRingQueueHandsOffInOrder() throws InterruptedException {
+        SpscRingQueue<Integer> queue = new SpscRingQueue<>(10);
+        assertEquals(16, queue.capacity());
+        final int count = 10000;
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < count; i++) {
+                while (!queue.offer(i)) {
+                    Thread.yield();
+                }
+            }
+        });
+        producer.start();
+        for (int i = 0; i < count; i++) {
+            Integer element;
+            while ((element = queue.poll()) == null) {
+                Thread.yield();
+            }
+            assertEquals(Integer.valueOf(i), element);
+        }
+        producer.join();
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void parallelStreamArrayDeque() {
+        SimpleArrayDeque<Integer> deque = new SimpleArrayDeque<>(10000);
+        for (int i = 0; i < 5000; i++) {
+            deque.pushRight(i);
+            deque.pushLeft(-i - 1);
+        }
+        Spliterator<Integer> spliterator = deque.spliterator();
+        Spliterator<Integer> prefix = spliterator.trySplit();
+        assertEquals(5000, prefix.estimateSize());
+        assertEquals(5000, spliterator.estimateSize());
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SUBSIZED));
+
+        Object[] expected = new Object[10000];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = i - 5000;
+        }
+        assertArrayEquals(expected, deque.parallelStream().toArray());
+    }
+
+    @Test
+    public void parallelStreamLinkedDeque() {
+        SimpleLinkedDeque<Integer> deque = new SimpleLinkedDeque<>();
+        for (int i = 0; i < 5000; i++) {
+            deque.pushRight(i);
+        }
+        assertEquals(5000, deque.spliterator().estimateSize());
+        assertEquals(12497500L, deque.parallelStream().mapToLong(i -> i).sum());
+        assertArrayEquals(deque.stream().toArray(), deque.parallelStream().toArray());
+    }
+
+    @Test
+    public void nodePoolLinkedDeque() {
+        SimpleLinkedDeque<Integer> deque = new SimpleLinkedDeque<>();
+        deque.setPoolCapacity(4);
+        for (int i = 0; i < 10; i++) {
+            deque.pushRight(i);
+        }
+        for (int i = 0; i < 10; i++) {
+            assertEquals(Integer.valueOf(i), deque.popLeft());
+        }
+        assertEquals(4, deque.pooledNodes());
+
+        deque.pushLeft(1);
+        deque.pushRight(2);
+        assertEquals(2, deque.pooledNodes());
+        assertEquals(Integer.valueOf(2), deque.popRight());
+        assertEquals(Integer.valueOf(1), deque.peekLeft());
+
+        deque.setPoolCapacity(0);
+        assertEquals(0, deque.pooledNodes());
+    }
+
+    @Test
+    public void instrumentedDequeRecordsMetrics() {
+        InstrumentedDeque<Integer> deque =
+                new InstrumentedDeque<>(new SimpleArrayDeque<>(100), 1);
+        for (int i = 0; i < 20; i++) {
+            deque.pushRight(i);
+        }
+        deque.popLeft();
+        deque.peekRight();
+        InstrumentedDeque<Integer> other = new InstrumentedDeque<>(emptyDeque);
+        try {
+            other.popLeft();
+            fail();
+        } catch (NoSuchElementException expected) {
+            // counted by the other decorator only
+        }
+        assertEquals(1, other.snapshot().emptyPops());
+
+        InstrumentedDeque.Snapshot snapshot = deque.snapshot();
+        assertEquals(20, snapshot.count(InstrumentedDeque.Operation.PUSH_RIGHT));
+        assertEquals(1, snapshot.count(InstrumentedDeque.Operation.POP_LEFT));
+        assertEquals(20, snapshot.highWaterMark());
+        assertEquals(19, snapshot.size());
+        assertEquals(0, snapshot.emptyPops());
+        assertTrue(snapshot.resizes() > 0);
+        assertTrue(snapshot.latencyPercentileNanos(0.99) > 0);
+        assertEquals(20, deque.getPushCount());
+    }
+
+    @Test
+    public void instrumentedDequeRegistersMBean() throws JMException {
+        InstrumentedDeque<Integer> deque = new InstrumentedDeque<>(new SimpleArrayDeque<>(10));
+        deque.pushLeft(1);
+        deque.pushRight(2);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = deque.registerMBean("test-" + System.nanoTime());
+        try {
+            assertTrue(server.isRegistered(name));
+            assertEquals(2L, server.getAttribute(name, "PushCount"));
+        } finally {
+            server.unregisterMBean(name);
+        }
+        assertFalse(server.isRegistered(name));
+    }
+
+    @Test
+    public void slidingWindowMinMaxCountWindow() {
+        SlidingWindowMinMax window = SlidingWindowMinMax.countWindow(5);
+        long[] samples = new long[200];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = rand.nextInt(100);
+        }
+        window.accept(Arrays.copyOf(samples, 3));
+        for (int i = 3; i < samples.length; i++) {
+            window.accept(samples[i]);
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for (int j = Math.max(0, i - 4); j <= i; j++) {
+                min = Math.min(min, samples[j]);
+                max = Math.max(max, samples[j]);
+            }
+            assertEquals(min, window.min());
+            assertEquals(max, window.max());
+        }
+    }
+
+    @Test
+    public void slidingWindowMinMaxTimeWindow() {
+        SlidingWindowMinMax window = SlidingWindowMinMax.timeWindow(10);
+        window.accept(0, 7);
+        window.accept(5, 3);
+        window.accept(9, 5);
+        assertEquals(3, window.min());
+        assertEquals(7, window.max());
+        window.accept(10, 4);
+        assertEquals(5, window.max());
+        window.advanceTo(30);
+        assertTrue(window.isEmpty());
+    }
+
+    @Test
+    public void versionedDequeSnapshotsAreUnchanged() {
+        VersionedDeque<Integer> deque = new VersionedDeque<>();
+        SimpleLinkedDeque<Integer> model = new SimpleLinkedDeque<>();
+        for (int i = 0; i < 500; i++) {
+            int op = rand.nextInt(4);
+            if (op == 0 || model.isEmpty()) {
+                deque.pushLeft(i);
+                model.pushLeft(i);
+            } else if (op == 1) {
+                deque.pushRight(i);
+                model.pushRight(i);
+            } else if (op == 2) {
+                assertEquals(model.popLeft(), deque.popLeft());
+            } else {
+                assertEquals(model.popRight(), deque.popRight());
+            }
+        }
+
+        PersistentDeque<Integer> snapshot = deque.snapshot();
+        Object[] expected = model.stream().toArray();
+        while (!deque.isEmpty()) {
+            deque.popRight();
+        }
+        assertArrayEquals(expected, new VersionedDeque<>(snapshot).stream().toArray());
+        assertEquals(expected.length, snapshot.size());
+        if (expected.length > 0) {
+            assertEquals(expected[expected.length - 1], snapshot.reverseIterator().next());
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void persistentDequeSharedVersionPoppedRepeatedly() {
+        PersistentDeque<Integer> deque = PersistentDeque.empty();
+        int n = 100000;
+        for (int i = 0; i < n; i++) {
+            deque = deque.pushRight(i);
+        }
+        // every pop from the same version must not redo the rebuild
+        for (int i = 0; i < n; i++) {
+            assertEquals(Integer.valueOf(1), deque.popLeft().peekLeft());
+            assertEquals(Integer.valueOf(n - 2), deque.popRight().peekRight());
+        }
+        PersistentDeque<Integer> rest = deque;
+        for (int i = 0; i < n; i++) {
+            assertEquals(Integer.valueOf(i), rest.peekLeft());
+            rest = rest.popLeft();
+        }
+        assertTrue(rest.isEmpty());
+        assertEquals(n, deque.size());
+    }
+
+    @Test
+    public void appendAllAndSplitAtLinkedDeque() {
+        SimpleLinkedDeque<Integer> left = new SimpleLinkedDeque<>();
+        SimpleLinkedDeque<Integer> right = new SimpleLinkedDeque<>();
+        for (int i = 0; i < 10; i++) {
+            left.pushRight(i);
+            right.pushRight(i + 10);
+        }
+        left.appendAll(right);
+        assertTrue(right.isEmpty());
+        assertEquals(20, left.size());
+        assertEquals(Integer.valueOf(19), left.peekRight());
+
+        SimpleLinkedDeque<Integer> tail = left.splitAt(15);
+        assertEquals(15, left.size());
+        assertEquals(Integer.valueOf(14), left.peekRight());
+        assertArrayEquals(new Object[]{15, 16, 17, 18, 19}, tail.stream().toArray());
+
+        SimpleLinkedDeque<Integer> all = left.splitAt(0);
+        assertTrue(left.isEmpty());
+        all.appendAll(tail);
+        assertEquals(20, all.size());
+        Iterator<Integer> iter = all.reverseIterator();
+        for (int i = 19; i >= 0; i--) {
+            assertEquals(Integer.valueOf(i), iter.next());
+        }
+    }
+
+    @Test
+    public void minMaxHeapPopsBothEnds() {
+        MinMaxHeap<Integer> heap = new MinMaxHeap<>(300);
+        Integer[] values = new Integer[300];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = rand.nextInt(1000);
+            heap.push(values[i]);
+        }
+        assertTrue(heap.isFull());
+        Arrays.sort(values);
+
+        int low = 0;
+        int high = values.length - 1;
+        while (!heap.isEmpty()) {
+            if (rand.nextBoolean()) {
+                assertEquals(values[low++], heap.popLeft());
+            } else {
+                assertEquals(values[high--], heap.popRight());
+            }
+        }
+        assertEquals(low, high + 1);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void minMaxHeapFull() {
+        MinMaxHeap<Integer> heap = new MinMaxHeap<>(1);
+        heap.push(1);
+        heap.push(2);
+    }
+
+    @Test
+    public void expiringDequeExpiresInBatches() {
+        long[] now = {0};
+        ExpiringDeque<Integer> deque = new ExpiringDeque<>(100, 10, 64, () -> now[0]);
+        for (int i = 0; i < 10; i++) {
+            now[0] = i * 20;
+            deque.pushRight(i);
+        }
+        // elements pushed at 0..180 expire at 100..280
+        assertEquals(Integer.valueOf(4), deque.peekLeft());
+        assertEquals(6, deque.size());
+
+        deque.popRight();
+        now[0] = 245;
+        assertEquals(3, deque.expire());
+        assertEquals(2, deque.size());
+        Iterator<Integer> iter = deque.iterator();
+        assertEquals(Integer.valueOf(7), iter.next());
+        assertEquals(Integer.valueOf(8), iter.next());
+        assertFalse(iter.hasNext());
+
+        now[0] = 1000;
+        deque.pushLeft(42);
+        assertEquals(1, deque.size());
+        assertEquals(Integer.valueOf(42), deque.peekRight());
+    }
+
+    @Test
+    public void expiringDequeReadsExpireWithoutPush() {
+        long[] now = {0};
+        ExpiringDeque<Integer> deque = new ExpiringDeque<>(100, 10, 64, () -> now[0]);
+        deque.pushRight(1);
+        now[0] = 50;
+        deque.pushRight(2);
+
+        // no push from here on, only reads and pops
+        now[0] = 120;
+        assertEquals(1, deque.size());
+        assertEquals(Integer.valueOf(2), deque.peekLeft());
+        now[0] = 170;
+        assertTrue(deque.isEmpty());
+        assertFalse(deque.iterator().hasNext());
+
+        now[0] = 200;
+        deque.pushRight(3);
+        now[0] = 320;
+        try {
+            deque.popLeft();
+            fail();
+        } catch (NoSuchElementException e) {
+            assertEquals(0, deque.size());
+        }
+    }
+
+    @Test
+    public void expiringDequeCompactsDeadMiddle() {
+        long[] now = {0};
+        ExpiringDeque<Integer> deque = new ExpiringDeque<>(100, 10, 64, () -> now[0]);
+        int pushes = 200000;
+        for (int i = 0; i < pushes; i++) {
+            now[0] = i;
+            // the oldest elements, which expire first, end up in the middle
+            if (i % 2 == 0) {
+                deque.pushLeft(i);
+            } else {
+                deque.pushRight(i);
+            }
+            assertTrue(deque.size() <= 111);
+            assertTrue(deque.ringLength() <= 512);
+        }
+
+        // even elements descending on the left, odd ones ascending on the right
+        Iterator<Integer> iter = deque.iterator();
+        int count = 0;
+        int previous = pushes;
+        boolean left = true;
+        while (iter.hasNext()) {
+            int element = iter.next();
+            assertTrue(element >= pushes - 111);
+            if (left && element % 2 != 0) {
+                left = false;
+                previous = -1;
+            }
+            assertEquals(left, element % 2 == 0);
+            assertTrue(left ? element < previous : element > previous);
+            previous = element;
+            count++;
+        }
+        assertEquals(deque.size(), count);
+        assertEquals(Integer.valueOf(pushes - 2), deque.popLeft());
+        assertEquals(Integer.valueOf(pushes - 1), deque.popRight());
+    }
+
+    @Test
+    public void publisherFeedsSubscriberWithinCapacity() throws InterruptedException {
+        DequePublisher<Integer> publisher =
+                new DequePublisher<>(new SimpleLinkedDeque<>(16), Runnable::run, 4);
+        DequeSubscriber<Integer> subscriber =
+                new DequeSubscriber<>(new SimpleLinkedDeque<>(8), 8, 4);
+        publisher.subscribe(subscriber);
+
+        int offered = 0;
+        while (publisher.offer(offered)) {
+            offered++;
+        }
+        // 8 buffered by the subscriber and 16 held back by the publisher
+        assertEquals(24, offered);
+        assertEquals(8, subscriber.size());
+
+        publisher.close();
+        for (int i = 0; i < offered; i++) {
+            assertEquals(Integer.valueOf(i), subscriber.poll());
+        }
+        assertNull(subscriber.poll());
+        assertTrue(subscriber.isDone());
+    }
+
+    @Test
+    public void publisherSignalsInvalidRequestSerially() {
+        DequePublisher<Integer> publisher =
+                new DequePublisher<>(new SimpleLinkedDeque<>(16), Runnable::run, 4);
+        StringBuilder events = new StringBuilder();
+        publisher.subscribe(new Flow.Subscriber<Integer>() {
+            private Flow.Subscription subscription;
+            private boolean inOnNext = false;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(2);
+            }
+
+            @Override
+            public void onNext(Integer item) {
+                inOnNext = true;
+                events.append("next").append(item).append(' ');
+                subscription.request(0);
+                inOnNext = false;
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                assertFalse(inOnNext);
+                assertTrue(throwable instanceof IllegalArgumentException);
+                events.append("error ");
+            }
+
+            @Override
+            public void onComplete() {
+                events.append("complete ");
+            }
+        });
+        publisher.offer(1);
+        publisher.offer(2);
+        publisher.close();
+        assertEquals("next1 error ", events.toString());
+    }
+
+    @Test
+    public void fixedArrayDequeOverwritesOldest() {
+        SimpleArrayDeque<Integer> log = new SimpleArrayDeque<>(4,
+                SimpleArrayDeque.OverflowPolicy.OVERWRITE_OLDEST);
+        for (int i = 0; i < 10; i++) {
+            log.pushRight(i);
+        }
+        assertTrue(log.isFull());
+        assertEquals(0, log.resizeCount());
+        Integer[] expected = new Integer[]{6, 7, 8, 9};
+        Iterator<Integer> iterator = log.iterator();
+        for (Integer element : expected) {
+            assertEquals(element, iterator.next());
+        }
+        assertFalse(iterator.hasNext());
+
+        log.pushAllRight(new Integer[]{10, 11, 12, 13, 14, 15}, 0, 6);
+        Integer[] dst = new Integer[4];
+        assertEquals(4, log.popLeft(dst, 4));
+        assertArrayEquals(new Integer[]{12, 13, 14, 15}, dst);
+    }
+
+    @Test
+    public void fixedArrayDequeDropsNewest() {
+        SimpleArrayDeque<Integer> deque = new SimpleArrayDeque<>(2,
+                SimpleArrayDeque.OverflowPolicy.DROP_NEWEST);
+        deque.pushRight(1);
+        deque.pushLeft(0);
+        deque.pushRight(2);
+        deque.pushAllLeft(new Integer[]{3, 4}, 0, 2);
+        assertEquals(2, deque.size());
+        assertEquals(Integer.valueOf(0), deque.popLeft());
+        assertEquals(Integer.valueOf(1), deque.popLeft());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fixedArrayDequeNotPowerOfTwo() {
+        new SimpleArrayDeque<Integer>(10, SimpleArrayDeque.OverflowPolicy.REJECT);
+    }
+}
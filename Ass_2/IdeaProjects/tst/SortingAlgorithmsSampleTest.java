@@ -1,7 +1,14 @@
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
 
 import static org.junit.Assert.*;
 
@@ -114,6 +121,36 @@ public class SortingAlgorithmsSampleTest {
         assertArrayEquals(toSort, sortedAscending);
     }
 
+    @Test
+    public void testParallelMergeSortLarge() {
+        Random random = new Random(3506);
+        Integer[] toSort = new Integer[100000];
+        for (int i = 0; i < toSort.length; i++) {
+            toSort[i] = random.nextInt(1000);
+        }
+        Integer[] expected = Arrays.copyOf(toSort, toSort.length);
+        Arrays.sort(expected);
+        SortingAlgorithms.parallelMergeSort(toSort, false);
+
+        assertArrayEquals(expected, toSort);
+    }
+
+    @Test
+    public void testParallelMergeSortStable() {
+        // few distinct keys, so large merges split between equal elements
+        Item[] toSort = new Item[50000];
+        for (int i = 0; i < toSort.length; i++) {
+            toSort[i] = new Item((i * 7919) % 5, i);
+        }
+        SortingAlgorithms.parallelMergeSort(toSort, false);
+
+        for (int i = 1; i < toSort.length; i++) {
+            assertTrue(toSort[i - 1].key < toSort[i].key
+                    || (toSort[i - 1].key == toSort[i].key
+                    && toSort[i - 1].position < toSort[i].position));
+        }
+    }
+
     /* -------------------------------- QUICK SORT -------------------------- */
 
     @Test
@@ -140,4 +177,297 @@ public class SortingAlgorithmsSampleTest {
 
         assertArrayEquals(toSort, sortedAscending);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testQuickSortLargeSortedAndReversed() {
+        // took quadratic time and overflowed the stack with the old pivot
+        Integer[] toSort = new Integer[200000];
+        for (int i = 0; i < toSort.length; i++) {
+            toSort[i] = toSort.length - i;
+        }
+        SortingAlgorithms.quickSort(toSort, false);
+        for (int i = 0; i < toSort.length; i++) {
+            assertEquals(Integer.valueOf(i + 1), toSort[i]);
+        }
+        SortingAlgorithms.quickSort(toSort, true);
+        assertEquals(Integer.valueOf(toSort.length), toSort[0]);
+    }
+
+    @Test
+    public void testQuickSortFewUnique() {
+        Random random = new Random(3506);
+        Integer[] toSort = new Integer[100000];
+        for (int i = 0; i < toSort.length; i++) {
+            toSort[i] = random.nextInt(4);
+        }
+        Integer[] expected = Arrays.copyOf(toSort, toSort.length);
+        Arrays.sort(expected);
+        SortingAlgorithms.quickSort(toSort, false);
+
+        assertArrayEquals(expected, toSort);
+    }
+
+    /* -------------------------------- TIM SORT ---------------------------- */
+
+    @Test
+    public void testTimSortRandomStable() {
+        Random random = new Random(3506);
+        Item[] toSort = new Item[100000];
+        for (int i = 0; i < toSort.length; i++) {
+            toSort[i] = new Item(random.nextInt(100), i);
+        }
+        SortingAlgorithms.timSort(toSort, false);
+
+        for (int i = 1; i < toSort.length; i++) {
+            assertTrue(toSort[i - 1].key < toSort[i].key
+                    || (toSort[i - 1].key == toSort[i].key
+                    && toSort[i - 1].position < toSort[i].position));
+        }
+    }
+
+    @Test
+    public void testTimSortOrderedRunsLinear() {
+        Item[] toSort = new Item[100000];
+        for (int i = 0; i < toSort.length; i++) {
+            // an ascending run followed by a strictly descending one
+            int key = (i < 50000) ? i : 150000 - i;
+            toSort[i] = new Item(key, i);
+        }
+        Item.comparisons = 0;
+        SortingAlgorithms.timSort(toSort, false);
+
+        assertTrue(Item.comparisons < 2 * toSort.length);
+        for (int i = 1; i < toSort.length; i++) {
+            assertTrue(toSort[i - 1].key <= toSort[i].key);
+        }
+    }
+
+    /* ------------------------------- RADIX SORT --------------------------- */
+
+    @Test
+    public void testRadixSortInts() {
+        Random random = new Random(3506);
+        for (int length : new int[]{0, 1, 100, 100000}) {
+            int[] toSort = new int[length];
+            for (int i = 0; i < length; i++) {
+                toSort[i] = random.nextInt();
+            }
+            int[] expected = Arrays.copyOf(toSort, length);
+            Arrays.sort(expected);
+            SortingAlgorithms.radixSort(toSort, false);
+            assertArrayEquals(expected, toSort);
+
+            SortingAlgorithms.radixSort(toSort, true);
+            for (int i = 0; i < length; i++) {
+                assertEquals(expected[length - 1 - i], toSort[i]);
+            }
+        }
+    }
+
+    @Test
+    public void testRadixSortLongs() {
+        Random random = new Random(3506);
+        long[] toSort = new long[1000];
+        for (int i = 0; i < toSort.length; i++) {
+            // small values leave the upper digit passes to be skipped
+            toSort[i] = (i % 2 == 0) ? random.nextLong() : random.nextInt(500) - 250;
+        }
+        toSort[0] = Long.MIN_VALUE;
+        toSort[1] = Long.MAX_VALUE;
+        long[] expected = Arrays.copyOf(toSort, toSort.length);
+        Arrays.sort(expected);
+        SortingAlgorithms.radixSort(toSort, false);
+
+        assertArrayEquals(expected, toSort);
+    }
+
+    /* ------------------------- COMPARATOR AND KEY SORTS ------------------- */
+
+    @Test
+    public void testMergeSortComparatorReversedStable() {
+        Item[] toSort = new Item[1000];
+        for (int i = 0; i < toSort.length; i++) {
+            toSort[i] = new Item(i % 10, i);
+        }
+        SortingAlgorithms.mergeSort(toSort,
+                Comparator.comparingInt((Item item) -> item.key), true);
+
+        for (int i = 1; i < toSort.length; i++) {
+            assertTrue(toSort[i - 1].key > toSort[i].key
+                    || (toSort[i - 1].key == toSort[i].key
+                    && toSort[i - 1].position < toSort[i].position));
+        }
+    }
+
+    @Test
+    public void testInsertionSortStringsReverse() {
+        String[] toSort = new String[]{"hi", "apple", "zebra", "duck"};
+        SortingAlgorithms.insertionSort(toSort, true);
+
+        assertArrayEquals(new String[]{"zebra", "hi", "duck", "apple"}, toSort);
+    }
+
+    @Test
+    public void testSortByKeyStable() {
+        Random random = new Random(3506);
+        for (int length : new int[]{100, 10000}) {
+            Item[] byInt = new Item[length];
+            for (int i = 0; i < length; i++) {
+                byInt[i] = new Item(random.nextInt(50) - 25, i);
+            }
+            Item[] byLong = Arrays.copyOf(byInt, length);
+            SortingAlgorithms.sortByIntKey(byInt, item -> item.key, true);
+            SortingAlgorithms.sortByLongKey(byLong, item -> -(long) item.key, false);
+
+            assertArrayEquals(byInt, byLong);
+            for (int i = 1; i < length; i++) {
+                assertTrue(byInt[i - 1].key > byInt[i].key
+                        || (byInt[i - 1].key == byInt[i].key
+                        && byInt[i - 1].position < byInt[i].position));
+            }
+        }
+    }
+
+    /* ---------------------------- SAMPLE SORT ----------------------------- */
+
+    @Test
+    public void testParallelSampleSortRandom() {
+        Random random = new Random(3506);
+        Integer[] toSort = new Integer[300000];
+        for (int i = 0; i < toSort.length; i++) {
+            toSort[i] = random.nextInt();
+        }
+        Integer[] expected = Arrays.copyOf(toSort, toSort.length);
+        Arrays.sort(expected, Comparator.reverseOrder());
+        SortingAlgorithms.parallelSampleSort(toSort, true);
+
+        assertArrayEquals(expected, toSort);
+    }
+
+    @Test
+    public void testParallelSampleSortFewUniqueStable() {
+        Random random = new Random(3506);
+        Item[] toSort = new Item[100000];
+        for (int i = 0; i < toSort.length; i++) {
+            toSort[i] = new Item(random.nextInt(3), i);
+        }
+        SortingAlgorithms.parallelSampleSort(toSort, false);
+
+        for (int i = 1; i < toSort.length; i++) {
+            assertTrue(toSort[i - 1].key < toSort[i].key
+                    || (toSort[i - 1].key == toSort[i].key
+                    && toSort[i - 1].position < toSort[i].position));
+        }
+    }
+
+    /* ---------------------------- EXTERNAL SORT --------------------------- */
+
+    @Test
+    public void testExternalSortFixedManyRuns() throws IOException {
+        Path directory = Files.createTempDirectory("sort");
+        Path input = directory.resolve("input");
+        Path output = directory.resolve("output");
+        Random random = new Random(3506);
+        long[] values = new long[5000];
+        ByteBuffer records = ByteBuffer.allocate(values.length * Long.BYTES);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(1000000);
+            records.putLong(values[i]);
+        }
+        Files.write(input, records.array());
+
+        // 100 runs of 50 records, so the runs are merged in two passes
+        ExternalMergeSort.sort(input, output, ExternalMergeSort.Format.fixed(Long.BYTES),
+                Comparator.comparingLong(record -> ByteBuffer.wrap(record).getLong()),
+                50 * (Long.BYTES + ExternalMergeSort.RECORD_OVERHEAD), directory);
+
+        Arrays.sort(values);
+        ByteBuffer sorted = ByteBuffer.wrap(Files.readAllBytes(output));
+        for (long value : values) {
+            assertEquals(value, sorted.getLong());
+        }
+        assertFalse(sorted.hasRemaining());
+        Files.delete(input);
+        Files.delete(output);
+        // every run file has been deleted
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testExternalSortLinesStable() throws IOException {
+        Path directory = Files.createTempDirectory("sort");
+        Path input = directory.resolve("input");
+        Path output = directory.resolve("output");
+        Files.write(input, "b2\na1\nb1\n\na2\nb3".getBytes(StandardCharsets.UTF_8));
+
+        // sorts by first byte only, so equal lines must keep their order
+        ExternalMergeSort.sort(input, output, ExternalMergeSort.Format.delimited((byte) '\n'),
+                Comparator.comparingInt(line -> line.length == 0 ? -1 : line[0]),
+                4, directory);
+
+        assertEquals("\na1\na2\nb2\nb1\nb3\n",
+                new String(Files.readAllBytes(output), StandardCharsets.UTF_8));
+        Files.delete(input);
+        Files.delete(output);
+        Files.delete(directory);
+    }
+
+    /* ------------------------- SELECTION AND TOP-K ------------------------ */
+
+    @Test
+    public void testSelectAndPartialSort() {
+        Random random = new Random(3506);
+        Integer[] toSelect = new Integer[10001];
+        for (int i = 0; i < toSelect.length; i++) {
+            toSelect[i] = random.nextInt(500);
+        }
+        Integer[] expected = Arrays.copyOf(toSelect, toSelect.length);
+        Arrays.sort(expected);
+
+        assertEquals(expected[5000], SortingAlgorithms.select(toSelect, 5000));
+        for (int i = 0; i < toSelect.length; i++) {
+            assertTrue(i <= 5000 || toSelect[i] >= expected[5000]);
+            assertTrue(i >= 5000 || toSelect[i] <= expected[5000]);
+        }
+
+        SortingAlgorithms.partialSort(toSelect, 100);
+        assertArrayEquals(Arrays.copyOf(expected, 100), Arrays.copyOf(toSelect, 100));
+    }
+
+    @Test
+    public void testTopK() {
+        int[] ints = new int[]{5, -3, 9, 9, 0, 12, -7, 4};
+        assertArrayEquals(new int[]{12, 9, 9}, SortingAlgorithms.topK(ints, 3));
+        assertEquals(0, SortingAlgorithms.topK(ints, 0).length);
+
+        long[] longs = new long[]{Long.MIN_VALUE, 3, Long.MAX_VALUE, -1};
+        assertArrayEquals(new long[]{Long.MAX_VALUE, 3, -1, Long.MIN_VALUE},
+                SortingAlgorithms.topK(longs, 4));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSelectOutOfRange() {
+        SortingAlgorithms.select(unsorted, unsorted.length);
+    }
+
+    /**
+     * An element ordered by key only, remembering its original position.
+     */
+    private static class Item implements Comparable<Item> {
+        // number of calls to compareTo, across all items
+        private static long comparisons = 0;
+        private final int key;
+        private final int position;
+
+        Item(int key, int position) {
+            this.key = key;
+            this.position = position;
+        }
+
+        @Override
+        public int compareTo(Item other) {
+            ++comparisons;
+            return Integer.compare(key, other.key);
+        }
+    }
+}